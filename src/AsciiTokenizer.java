@@ -0,0 +1,33 @@
+import java.util.Arrays;
+
+/**
+ * 快速的 ASCII 分词：只保留 a-z（大写转小写），其他字符都视为分隔符
+ * 与原来 TextProcessor 的 "[^a-z]" 规则一致
+ */
+public class AsciiTokenizer implements Tokenizer {
+
+    @Override
+    public void tokenize(CharSequence text, TokenSink sink) {
+        char[] buffer = new char[32];
+        int length = 0;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            char c = text.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                c = (char) (c + ('a' - 'A'));
+            } else if (c < 'a' || c > 'z') {
+                if (length > 0) {
+                    sink.accept(buffer, length);
+                    length = 0;
+                }
+                continue;
+            }
+            if (length == buffer.length) {
+                buffer = Arrays.copyOf(buffer, length * 2);
+            }
+            buffer[length++] = c;
+        }
+        if (length > 0) {
+            sink.accept(buffer, length);
+        }
+    }
+}
@@ -0,0 +1,214 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * 批处理模式：从语料构建一次单词图，然后执行查询文件中的全部命令
+ * 每条结果输出为一行JSON（JSON Lines），按查询文件中的顺序输出
+ * 用法：--batch <语料文件> <查询文件> [--out <输出文件>] [--threads <线程数>] [--order <k>]
+ * --order 大于 1 时额外构建 k 阶图，用于 expand 和 walk
+ * --tokenizer unicode 用于非英文语料，--stop-words 和 --stem 分别启用停用词过滤和词干提取
+ * --prune 在查询前剪掉低权重的边和低频单词，见 GraphPruner；同时使用 --order 时 k 阶图只包含剪枝后词表中的单词
+ * --off-heap 使用堆外单词图（OffHeapWordGraph），只支持 bridge、next 和 path，不能与 --order、--prune 同时使用
+ * --stream 用有界内存的流式建图（StreamingWordGraph），图中只保留高频边，参数为内存预算（字节）；不能与 --order、--off-heap 同时使用
+ * 查询文件每行一条命令，空行和以 # 开头的行会被忽略，命令格式见 QueryExecutor
+ */
+public class BatchRunner {
+    private final QueryExecutor executor;
+    private final int threads;
+
+    public BatchRunner(WordGraph graph, TextProcessor processor, int threads) {
+        this(new QueryExecutor(graph, processor), threads);
+    }
+
+    public BatchRunner(QueryExecutor executor, int threads) {
+        this.executor = executor;
+        this.threads = Math.max(1, threads);
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 2) {
+            System.err.println("Usage: --batch <corpus> <queries> [--out <file>] [--threads <n>] [--order <k>]"
+                    + " [--tokenizer ascii|unicode] [--stop-words] [--stem]"
+                    + " [--prune <minEdgeWeight>,<minNodeFrequency>[,<maxVocabulary>]] [--off-heap]"
+                    + " [--stream <memoryBudgetBytes>]");
+            System.exit(2);
+        }
+        String corpus = args[0];
+        String queries = args[1];
+        String out = null;
+        int threads = 1;
+        int order = 1;
+        String tokenizer = TextProcessor.DEFAULT_TOKENIZER;
+        boolean stopWords = false;
+        boolean stem = false;
+        GraphPruner pruner = null;
+        boolean offHeap = false;
+        long streamBudget = 0;
+        for (int i = 2; i < args.length; i++) {
+            switch (args[i]) {
+                case "--out" -> out = args[++i];
+                case "--threads" -> threads = Integer.parseInt(args[++i]);
+                case "--order" -> order = Integer.parseInt(args[++i]);
+                case "--tokenizer" -> tokenizer = args[++i];
+                case "--stop-words" -> stopWords = true;
+                case "--stem" -> stem = true;
+                case "--prune" -> pruner = GraphPruner.parse(args[++i]);
+                case "--off-heap" -> offHeap = true;
+                case "--stream" -> streamBudget = Long.parseLong(args[++i]);
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        TextProcessor processor = TextProcessor.create(tokenizer, stopWords, stem);
+        QueryExecutor executor = buildExecutor(corpus, processor, order, pruner, offHeap, streamBudget);
+
+        List<String> lines = Files.readAllLines(Paths.get(queries), StandardCharsets.UTF_8);
+        BatchRunner runner = new BatchRunner(executor, threads);
+        if (out == null) {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+            runner.run(lines, writer);
+            writer.flush();
+        } else {
+            try (Writer writer = Files.newBufferedWriter(Paths.get(out), StandardCharsets.UTF_8)) {
+                runner.run(lines, writer);
+            }
+        }
+    }
+
+    // 按命令行选项从语料建图并创建查询执行器，批处理和查询服务共用；streamBudget 为 0 时不使用流式建图
+    static QueryExecutor buildExecutor(String corpus, TextProcessor processor, int order, GraphPruner pruner,
+                                       boolean offHeap, long streamBudget) throws IOException {
+        String text = TextFileReader.readFile(corpus);
+        if (offHeap) {
+            if (order > 1 || pruner != null || streamBudget > 0) {
+                throw new IllegalArgumentException("--off-heap cannot be combined with --order, --prune or --stream");
+            }
+            OffHeapWordGraph offHeapGraph = new OffHeapWordGraph();
+            offHeapGraph.buildGraph(text, processor);
+            offHeapGraph.freeze();
+            return new QueryExecutor(offHeapGraph, processor);
+        }
+        WordGraph graph;
+        List<String> words = null;
+        if (streamBudget > 0) {
+            if (order > 1) {
+                throw new IllegalArgumentException("--stream cannot be combined with --order");
+            }
+            StreamingWordGraph streaming = new StreamingWordGraph(streamBudget);
+            streaming.buildGraph(text, processor);
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("totalEdges", streaming.totalEdges());
+            summary.put("heavyEdges", streaming.heavyEdgeCount());
+            summary.put("memoryBytes", streaming.memoryBytes());
+            summary.put("errorBound", streaming.errorBound());
+            summary.put("confidence", streaming.confidence());
+            System.err.println("Streaming graph: " + Json.toJson(summary));
+            graph = streaming.toWordGraph();
+        } else {
+            words = processor.processText(text);
+            graph = new WordGraph();
+            graph.buildGraph(words);
+        }
+        GraphPruner.Result pruned = null;
+        if (pruner != null) {
+            pruned = pruner.prune(graph);
+            System.err.println("Pruned graph: " + Json.toJson(pruned.summary()));
+            graph = pruned.toWordGraph();
+        }
+        NGramWordGraph nGramGraph = null;
+        if (order > 1) {
+            nGramGraph = new NGramWordGraph(order);
+            if (pruned != null) {
+                nGramGraph.buildGraphFromSegments(splitByVocabulary(words, pruned.graph()));
+            } else {
+                nGramGraph.buildGraph(words);
+            }
+        }
+        return new QueryExecutor(graph, processor, nGramGraph);
+    }
+
+    // 按剪枝后的词表过滤单词序列，被删除的词处断开，避免 k 阶图中出现原文不相邻的转移
+    static List<List<String>> splitByVocabulary(List<String> words, GraphSnapshot vocabulary) {
+        List<List<String>> segments = new ArrayList<>();
+        List<String> segment = new ArrayList<>();
+        for (String word : words) {
+            if (vocabulary.indexOf(word) >= 0) {
+                segment.add(word);
+            } else if (!segment.isEmpty()) {
+                segments.add(segment);
+                segment = new ArrayList<>();
+            }
+        }
+        if (!segment.isEmpty()) {
+            segments.add(segment);
+        }
+        return segments;
+    }
+
+    //执行所有查询并按原顺序写出结果
+    public void run(List<String> lines, Writer writer) throws IOException, InterruptedException {
+        List<Integer> lineNumbers = new ArrayList<>();
+        List<String> queries = new ArrayList<>();
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i).trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            lineNumbers.add(i + 1);
+            queries.add(line);
+        }
+
+        if (threads == 1) {
+            for (int i = 0; i < queries.size(); i++) {
+                writeLine(writer, runQuery(lineNumbers.get(i), queries.get(i)));
+            }
+            return;
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < queries.size(); i++) {
+                int lineNumber = lineNumbers.get(i);
+                String query = queries.get(i);
+                results.add(pool.submit(() -> runQuery(lineNumber, query)));
+            }
+            for (Future<String> result : results) {
+                try {
+                    writeLine(writer, result.get());
+                } catch (ExecutionException e) {
+                    // runQuery 自身会捕获查询异常，这里只可能是意外错误
+                    throw new IllegalStateException(e.getCause());
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private String runQuery(int lineNumber, String query) {
+        Map<String, Object> record = new LinkedHashMap<>();
+        record.put("line", lineNumber);
+        record.put("query", query);
+        long begin = System.nanoTime();
+        try {
+            record.put("result", executor.execute(query));
+        } catch (RuntimeException e) {
+            record.put("error", e.getMessage() != null ? e.getMessage() : e.toString());
+        } catch (Error e) {
+            // 例如过深图上的 StackOverflowError：记为该行的错误，批处理继续
+            record.put("error", e.toString());
+        }
+        record.put("micros", (System.nanoTime() - begin) / 1000);
+        return Json.toJson(record);
+    }
+
+    private static void writeLine(Writer writer, String line) throws IOException {
+        writer.write(line);
+        writer.write('\n');
+    }
+}
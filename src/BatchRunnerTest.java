@@ -0,0 +1,150 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchRunnerTest {
+
+    private static WordGraph sampleGraph() {
+        return GraphFixtures.graphOf("the scientist analyzed the data so the scientist analyzed it again");
+    }
+
+    // 运行批处理并去掉每行中随时间变化的 micros 字段
+    private static List<String> run(BatchRunner runner, List<String> lines) throws Exception {
+        StringWriter writer = new StringWriter();
+        runner.run(lines, writer);
+        List<String> output = new ArrayList<>();
+        for (String line : writer.toString().split("\n")) {
+            if (!line.isEmpty()) {
+                output.add(GraphFixtures.withoutMicros(line));
+            }
+        }
+        return output;
+    }
+
+    @Test
+    void testSkipsBlankAndCommentLines() throws Exception {
+        BatchRunner runner = new BatchRunner(sampleGraph(), new TextProcessor(), 1);
+        List<String> output = run(runner, Arrays.asList("", "# comment", "bridge analyzed again", "   "));
+        assertEquals(List.of("{\"line\":3,\"query\":\"bridge analyzed again\",\"result\":{\"bridges\":[\"it\"],"
+                + "\"message\":\"The bridge word from analyzed to again is: it.\"}}"), output);
+    }
+
+    @Test
+    void testCommandParsing() throws Exception {
+        BatchRunner runner = new BatchRunner(sampleGraph(), new TextProcessor(), 1);
+        List<String> output = run(runner, Arrays.asList("next the 1", "PATH so data", "pagerank 0.85 1", "edges 1"));
+        assertEquals(4, output.size());
+        assertEquals("{\"line\":1,\"query\":\"next the 1\",\"result\":{\"next\":"
+                + "[{\"source\":\"the\",\"target\":\"scientist\",\"weight\":2}]}}", output.get(0));
+        assertEquals("{\"line\":2,\"query\":\"PATH so data\",\"result\":{\"paths\":{\"data\":[[\"so\",\"the\",\"data\"]]}}}",
+                output.get(1));
+        assertTrue(output.get(2).startsWith("{\"line\":3,\"query\":\"pagerank 0.85 1\",\"result\":{\"ranks\":[{\"word\":"));
+        assertEquals(1, output.get(2).split("\"word\"").length - 1);
+        assertEquals("{\"line\":4,\"query\":\"edges 1\",\"result\":{\"edges\":"
+                + "[{\"source\":\"the\",\"target\":\"scientist\",\"weight\":2}]}}", output.get(3));
+    }
+
+    @Test
+    void testErrorRecordsDoNotStopTheBatch() throws Exception {
+        BatchRunner runner = new BatchRunner(sampleGraph(), new TextProcessor(), 1);
+        List<String> output = run(runner, Arrays.asList("unknown x", "bridge the", "path missing", "next the 1"));
+        assertEquals("{\"line\":1,\"query\":\"unknown x\",\"error\":\"Unknown command: unknown\"}", output.get(0));
+        assertEquals("{\"line\":2,\"query\":\"bridge the\",\"error\":\"Usage: bridge word1 word2\"}", output.get(1));
+        assertTrue(output.get(2).contains("\"error\":\"Start word 'missing' not found in graph.\""));
+        assertTrue(output.get(3).contains("\"result\""));
+    }
+
+    @Test
+    void testDampingFactorOutOfRange() throws Exception {
+        BatchRunner runner = new BatchRunner(sampleGraph(), new TextProcessor(), 1);
+        List<String> output = run(runner, Arrays.asList("pagerank 7.0", "pagerank NaN", "pagerank 1 1"));
+        assertEquals("{\"line\":1,\"query\":\"pagerank 7.0\",\"error\":\"Damping factor must be between 0 and 1: 7.0\"}",
+                output.get(0));
+        assertTrue(output.get(1).contains("\"error\""));
+        assertTrue(output.get(2).contains("\"ranks\""));
+    }
+
+    @Test
+    void testMultiThreadedOutputKeepsInputOrder() throws Exception {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            lines.add(i % 3 == 0 ? "path the" : i % 3 == 1 ? "next scientist" : "bridge the analyzed");
+            if (i % 10 == 0) {
+                lines.add("# checkpoint " + i);
+            }
+        }
+        List<String> sequential = run(new BatchRunner(sampleGraph(), new TextProcessor(), 1), lines);
+        List<String> parallel = run(new BatchRunner(sampleGraph(), new TextProcessor(), 8), lines);
+        assertEquals(200, sequential.size());
+        assertEquals(sequential, parallel);
+    }
+
+    @Test
+    void testErrorInQueryWrittenAsRecord() throws Exception {
+        QueryExecutor failing = new QueryExecutor(sampleGraph(), new TextProcessor()) {
+            @Override
+            public Map<String, Object> stats(boolean includeReachability) {
+                throw new StackOverflowError();
+            }
+        };
+        for (int threads : new int[]{1, 4}) {
+            List<String> output = run(new BatchRunner(failing, threads), Arrays.asList("stats", "next the 1"));
+            assertEquals(2, output.size());
+            assertEquals("{\"line\":1,\"query\":\"stats\",\"error\":\"java.lang.StackOverflowError\"}", output.get(0));
+            assertTrue(output.get(1).contains("\"result\""));
+        }
+    }
+
+    @Test
+    void testJsonEscaping() throws Exception {
+        Map<String, Object> value = new LinkedHashMap<>();
+        value.put("text", "say \"hi\"\\\n\r\t\u0001");
+        value.put("nan", Double.NaN);
+        value.put("list", Arrays.asList(1, true, null));
+        assertEquals("{\"text\":\"say \\\"hi\\\"\\\\\\n\\r\\t\\u0001\",\"nan\":null,\"list\":[1,true,null]}",
+                Json.toJson(value));
+
+        BatchRunner runner = new BatchRunner(sampleGraph(), new TextProcessor(), 1);
+        List<String> output = run(runner, List.of("bogus \"quoted\""));
+        assertEquals("{\"line\":1,\"query\":\"bogus \\\"quoted\\\"\",\"error\":\"Unknown command: bogus\"}", output.get(0));
+    }
+
+    @Test
+    void testQueryWordsNormalizedLikeCorpus() throws Exception {
+        List<String> output = GraphFixtures.runBatch("The cats sat on the mats. The cat sat again.",
+                Arrays.asList("next Cats 1", "bridge cats on", "prev mats", "next the", "next cats,dogs"),
+                "--stem", "--stop-words");
+        // 停用词 the、on 不在图中：cat -> sat -> mat -> cat -> sat
+        assertEquals("{\"line\":1,\"query\":\"next Cats 1\",\"result\":{\"next\":"
+                + "[{\"source\":\"cat\",\"target\":\"sat\",\"weight\":2}]}}", output.get(0));
+        assertTrue(output.get(1).contains("\"error\":\"Word 'on' is empty or a stop word after normalization\""));
+        assertTrue(output.get(2).contains("{\"source\":\"sat\",\"target\":\"mat\",\"weight\":1}"));
+        assertTrue(output.get(3).contains("\"error\":\"Word 'the' is empty or a stop word"));
+        assertTrue(output.get(4).contains("\"error\":\"Word 'cats,dogs' is not a single token: [cat, dog]\""));
+    }
+
+    @Test
+    void testPrunedVocabularyAppliesToNGramGraph() throws Exception {
+        String text = "a b a b a c d a b";
+        GraphFixtures.withCorpus(text, corpus -> {
+            // 最低词频 2：只保留 a 和 b，k 阶图中不应出现 c、d，也不应出现跨过它们的转移 a b -> a
+            QueryExecutor executor = BatchRunner.buildExecutor(corpus, new TextProcessor(), 2,
+                    GraphPruner.parse("1,2,100"), false, 0);
+            for (long seed = 0; seed < 20; seed++) {
+                List<?> walk = (List<?>) executor.walk(new Random(seed)).get("walk");
+                assertTrue(List.of("a", "b").containsAll(walk), walk.toString());
+            }
+        });
+        assertEquals(List.of(List.of("a", "b", "a", "b", "a"), List.of("a", "b")),
+                BatchRunner.splitByVocabulary(Arrays.asList(text.split(" ")),
+                        GraphPruner.parse("1,2,100").prune(GraphFixtures.graphOf(text)).graph()));
+    }
+}
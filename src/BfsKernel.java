@@ -0,0 +1,170 @@
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
+
+/**
+ * 在 GraphSnapshot 上计算无权最短距离的 BFS，支持多个起点（到任一起点的最近距离）
+ * - 当前层和下一层用 int 数组存放，已访问节点用位图记录
+ * - 方向优化：当前层的出边总数超过未访问节点入边总数的 1/ALPHA 时改为自底向上
+ *   （每个未访问节点检查自己的入边是否来自当前层），当前层缩小到 n/BETA 以下时改回自顶向下
+ * - 当前层（或自底向上时的节点范围）超过 PARALLEL_THRESHOLD 时按块并行扩展
+ */
+public class BfsKernel {
+    public static final int UNREACHED = -1;
+    private static final int ALPHA = 14;
+    private static final int BETA = 24;
+    static final int PARALLEL_THRESHOLD = 4096;
+    private static final int CHUNK = 1024;
+
+    private final GraphSnapshot graph;
+
+    public BfsKernel(GraphSnapshot graph) {
+        this.graph = graph;
+    }
+
+    // 每个节点到最近起点的距离，不可达为 UNREACHED
+    public int[] distances(int... sources) {
+        int n = graph.nodeCount();
+        int[] dist = new int[n];
+        Arrays.fill(dist, UNREACHED);
+        AtomicLongArray visited = new AtomicLongArray((n + 63) >>> 6);
+
+        int[] frontier = new int[sources.length];
+        int frontierSize = 0;
+        long frontierEdges = 0;
+        long unexploredEdges = graph.edgeCount();
+        for (int s : sources) {
+            if (claim(visited, s)) {
+                dist[s] = 0;
+                frontier[frontierSize++] = s;
+                frontierEdges += graph.outDegree(s);
+                unexploredEdges -= graph.inDegree(s);
+            }
+        }
+
+        boolean bottomUp = false;
+        int level = 0;
+        while (frontierSize > 0) {
+            if (!bottomUp && frontierEdges > unexploredEdges / ALPHA) {
+                bottomUp = true;
+            } else if (bottomUp && frontierSize < n / BETA) {
+                bottomUp = false;
+            }
+            int[] next = bottomUp
+                    ? bottomUpStep(frontier, frontierSize, level, dist, visited)
+                    : topDownStep(frontier, frontierSize, level, dist, visited);
+            level++;
+            frontier = next;
+            frontierSize = next.length;
+            frontierEdges = 0;
+            for (int v : next) {
+                frontierEdges += graph.outDegree(v);
+                unexploredEdges -= graph.inDegree(v);
+            }
+        }
+        return dist;
+    }
+
+    private int[] topDownStep(int[] frontier, int size, int level, int[] dist, AtomicLongArray visited) {
+        if (size < PARALLEL_THRESHOLD) {
+            return expandTopDown(frontier, 0, size, level, dist, visited);
+        }
+        int chunks = (size + CHUNK - 1) / CHUNK;
+        int[][] parts = IntStream.range(0, chunks).parallel()
+                .mapToObj(c -> expandTopDown(frontier, c * CHUNK, Math.min(size, (c + 1) * CHUNK), level, dist, visited))
+                .toArray(int[][]::new);
+        return concat(parts);
+    }
+
+    private int[] expandTopDown(int[] frontier, int from, int to, int level, int[] dist, AtomicLongArray visited) {
+        int[] next = new int[16];
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            int u = frontier[i];
+            for (int e = graph.outStart(u); e < graph.outEnd(u); e++) {
+                int v = graph.outTarget(e);
+                if (!isSet(visited, v) && claim(visited, v)) {
+                    dist[v] = level + 1;
+                    if (count == next.length) {
+                        next = Arrays.copyOf(next, count * 2);
+                    }
+                    next[count++] = v;
+                }
+            }
+        }
+        return Arrays.copyOf(next, count);
+    }
+
+    private int[] bottomUpStep(int[] frontier, int size, int level, int[] dist, AtomicLongArray visited) {
+        int n = graph.nodeCount();
+        long[] inFrontier = new long[(n + 63) >>> 6];
+        for (int i = 0; i < size; i++) {
+            inFrontier[frontier[i] >>> 6] |= 1L << frontier[i];
+        }
+        if (n < PARALLEL_THRESHOLD) {
+            return expandBottomUp(inFrontier, 0, n, level, dist, visited);
+        }
+        int chunks = (n + CHUNK - 1) / CHUNK;
+        int[][] parts = IntStream.range(0, chunks).parallel()
+                .mapToObj(c -> expandBottomUp(inFrontier, c * CHUNK, Math.min(n, (c + 1) * CHUNK), level, dist, visited))
+                .toArray(int[][]::new);
+        return concat(parts);
+    }
+
+    // 节点范围 [from, to) 由同一个任务处理，每个节点只会被一个线程写入
+    private int[] expandBottomUp(long[] inFrontier, int from, int to, int level, int[] dist, AtomicLongArray visited) {
+        int[] next = new int[16];
+        int count = 0;
+        for (int v = from; v < to; v++) {
+            if (isSet(visited, v)) {
+                continue;
+            }
+            for (int e = graph.inStart(v); e < graph.inEnd(v); e++) {
+                int u = graph.inSource(e);
+                if ((inFrontier[u >>> 6] & (1L << u)) != 0) {
+                    claim(visited, v);
+                    dist[v] = level + 1;
+                    if (count == next.length) {
+                        next = Arrays.copyOf(next, count * 2);
+                    }
+                    next[count++] = v;
+                    break;
+                }
+            }
+        }
+        return Arrays.copyOf(next, count);
+    }
+
+    private static boolean isSet(AtomicLongArray bits, int v) {
+        return (bits.get(v >>> 6) & (1L << v)) != 0;
+    }
+
+    // 原子地置位，返回是否由本次调用置位
+    private static boolean claim(AtomicLongArray bits, int v) {
+        int word = v >>> 6;
+        long mask = 1L << v;
+        while (true) {
+            long old = bits.get(word);
+            if ((old & mask) != 0) {
+                return false;
+            }
+            if (bits.compareAndSet(word, old, old | mask)) {
+                return true;
+            }
+        }
+    }
+
+    private static int[] concat(int[][] parts) {
+        int total = 0;
+        for (int[] part : parts) {
+            total += part.length;
+        }
+        int[] result = new int[total];
+        int pos = 0;
+        for (int[] part : parts) {
+            System.arraycopy(part, 0, result, pos, part.length);
+            pos += part.length;
+        }
+        return result;
+    }
+}
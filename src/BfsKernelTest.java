@@ -0,0 +1,97 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BfsKernelTest {
+
+    @Test
+    void testSingleSourceDistances() {
+        WordGraph graph = GraphFixtures.graphOf(Arrays.asList("a", "b", "c", "a", "d", "e"));
+        GraphSnapshot snapshot = graph.snapshot();
+        int[] dist = new BfsKernel(snapshot).distances(snapshot.indexOf("b"));
+        assertEquals(0, dist[snapshot.indexOf("b")]);
+        assertEquals(2, dist[snapshot.indexOf("a")]);
+        assertEquals(3, dist[snapshot.indexOf("d")]);
+        assertEquals(4, dist[snapshot.indexOf("e")]);
+        int[] fromE = new BfsKernel(snapshot).distances(snapshot.indexOf("e"));
+        assertEquals(BfsKernel.UNREACHED, fromE[snapshot.indexOf("a")]);
+    }
+
+    @Test
+    void testMultiSourceDistances() {
+        WordGraph graph = GraphFixtures.graphOf(Arrays.asList("a", "b", "c", "d", "e", "f"));
+        Map<String, Integer> dist = graph.distancesFrom(Arrays.asList("a", "d", "missing"));
+        assertEquals(0, dist.get("a"));
+        assertEquals(2, dist.get("c"));
+        assertEquals(0, dist.get("d"));
+        assertEquals(2, dist.get("f"));
+        assertThrows(IllegalArgumentException.class, () -> graph.distancesFrom(List.of("missing")));
+    }
+
+    @Test
+    void testAllTargetsPathsMatchSingleTarget() {
+        // 同一距离有多条最短路径
+        WordGraph graph = GraphFixtures.graphOf(Arrays.asList("a", "b", "d", "a", "c", "d", "e"));
+        Map<String, List<List<String>>> all = graph.findShortestPaths("a", null);
+        assertEquals(2, all.get("d").size());
+        for (Map.Entry<String, List<List<String>>> entry : all.entrySet()) {
+            List<List<String>> single = graph.findShortestPaths("a", entry.getKey()).get(entry.getKey());
+            assertEquals(single.size(), entry.getValue().size());
+            assertTrue(single.containsAll(entry.getValue()));
+        }
+    }
+
+    @Test
+    void testDeepChainPathsDoNotOverflowStack() throws Exception {
+        List<String> words = GraphFixtures.chain(30_000);
+        WordGraph graph = GraphFixtures.graphOf(words);
+        List<List<String>> single = graph.findShortestPaths(words.get(0), words.get(29_999)).get(words.get(29_999));
+        assertEquals(1, single.size());
+        assertEquals(words, single.get(0));
+
+        WordGraph shorter = GraphFixtures.graphOf(GraphFixtures.chain(4_000));
+        GraphFixtures.runWithSmallStack(() -> {
+            Map<String, List<List<String>>> all = shorter.findShortestPaths(GraphFixtures.chain(1).get(0), null);
+            assertEquals(3_999, all.size());
+            assertEquals(GraphFixtures.chain(4_000), all.get(GraphFixtures.chain(4_000).get(3_999)).get(0));
+        });
+    }
+
+    @Test
+    void testLargeGraphMatchesSequentialBfs() {
+        // 足够大以触发并行扩展和自底向上
+        Random random = new Random(7);
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < 400_000; i++) {
+            words.add("w" + random.nextInt(50_000));
+        }
+        GraphSnapshot snapshot = GraphFixtures.graphOf(words).snapshot();
+        int[] dist = new BfsKernel(snapshot).distances(0, 1);
+
+        int[] expected = new int[snapshot.nodeCount()];
+        Arrays.fill(expected, BfsKernel.UNREACHED);
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        expected[0] = 0;
+        expected[1] = 0;
+        queue.add(0);
+        queue.add(1);
+        while (!queue.isEmpty()) {
+            int u = queue.poll();
+            for (int e = snapshot.outStart(u); e < snapshot.outEnd(u); e++) {
+                int v = snapshot.outTarget(e);
+                if (expected[v] == BfsKernel.UNREACHED) {
+                    expected[v] = expected[u] + 1;
+                    queue.add(v);
+                }
+            }
+        }
+        assertArrayEquals(expected, dist);
+    }
+}
@@ -0,0 +1,88 @@
+/**
+ * Count-Min Sketch：用 depth 行、每行 width 个计数器估计任意元素的出现次数，内存固定
+ * 误差保证：设总计数为 N，epsilon = e / width，delta = e^(-depth)，则
+ *   真实值 <= estimate <= 真实值 + epsilon * N   的概率至少为 1 - delta
+ * 估计值永远不会小于真实值；使用保守更新（只增加当前最小的计数器），实际误差通常远小于上界
+ */
+public class CountMinSketch {
+    private final int width;
+    private final int depth;
+    private final int[] counters;
+    private long total;
+
+    public CountMinSketch(int width, int depth) {
+        if (width < 1 || depth < 1) {
+            throw new IllegalArgumentException("Width and depth must be positive");
+        }
+        this.width = width;
+        this.depth = depth;
+        this.counters = new int[width * depth];
+    }
+
+    // 根据误差 epsilon 和失败概率 delta 选择尺寸
+    public static CountMinSketch withError(double epsilon, double delta) {
+        int width = (int) Math.ceil(Math.E / epsilon);
+        int depth = (int) Math.ceil(Math.log(1 / delta));
+        return new CountMinSketch(width, Math.max(1, depth));
+    }
+
+    // 在给定字节数内选择最大的宽度
+    public static CountMinSketch withMemory(long bytes, int depth) {
+        long width = bytes / ((long) depth * Integer.BYTES);
+        return new CountMinSketch((int) Math.max(1, Math.min(width, Integer.MAX_VALUE / depth)), depth);
+    }
+
+    public void add(long item, int count) {
+        total += count;
+        long h1 = LongIntHashMap.mix(item);
+        long h2 = LongIntHashMap.mix(h1 ^ 0x9e3779b97f4a7c15L) | 1;
+        int min = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, counters[index(row, h1, h2)]);
+        }
+        // 保守更新：各行计数器至少达到 min + count
+        long target = Math.min((long) min + count, Integer.MAX_VALUE);
+        for (int row = 0; row < depth; row++) {
+            int i = index(row, h1, h2);
+            if (counters[i] < target) {
+                counters[i] = (int) target;
+            }
+        }
+    }
+
+    public int estimate(long item) {
+        long h1 = LongIntHashMap.mix(item);
+        long h2 = LongIntHashMap.mix(h1 ^ 0x9e3779b97f4a7c15L) | 1;
+        int min = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, counters[index(row, h1, h2)]);
+        }
+        return min;
+    }
+
+    public long totalCount() {
+        return total;
+    }
+
+    public double epsilon() {
+        return Math.E / width;
+    }
+
+    // 误差上界成立的概率
+    public double confidence() {
+        return 1 - Math.exp(-depth);
+    }
+
+    // 当前的加性误差上界 epsilon * N
+    public long errorBound() {
+        return (long) Math.ceil(epsilon() * total);
+    }
+
+    public long memoryBytes() {
+        return (long) counters.length * Integer.BYTES;
+    }
+
+    private int index(int row, long h1, long h2) {
+        return row * width + (int) Long.remainderUnsigned(h1 + row * h2, width);
+    }
+}
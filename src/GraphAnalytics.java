@@ -0,0 +1,350 @@
+import java.util.*;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
+
+/**
+ * 单词图的结构分析：强连通分量、缩点后的DAG、出/入度分布和可达节点数
+ * 强连通分量使用迭代版 Tarjan 算法（显式栈），深链式的图也不会栈溢出
+ * 节点数超过 PARALLEL_THRESHOLD 时，度分布和可达性统计会并行计算
+ */
+public class GraphAnalytics {
+    static final int PARALLEL_THRESHOLD = 1 << 14;
+
+    private final GraphSnapshot graph;
+    private int[] componentOf;
+    private int componentCount;
+    private Condensation condensation;
+    private long[] componentReach;
+
+    public GraphAnalytics(GraphSnapshot graph) {
+        this.graph = graph;
+    }
+
+    /**
+     * 每个节点所属的强连通分量编号
+     * 编号顺序为逆拓扑序：若分量 a 有边指向分量 b（a != b），则 b < a
+     */
+    public synchronized int[] componentOf() {
+        if (componentOf == null) {
+            computeComponents();
+        }
+        return componentOf;
+    }
+
+    public int componentCount() {
+        componentOf();
+        return componentCount;
+    }
+
+    // 缩点后的有向无环图
+    public synchronized Condensation condensation() {
+        if (condensation == null) {
+            condensation = new Condensation(graph, componentOf(), componentCount);
+        }
+        return condensation;
+    }
+
+    // 下标为出度，值为该出度的节点数
+    public int[] outDegreeHistogram() {
+        return histogram(graph::outDegree);
+    }
+
+    // 下标为入度，值为该入度的节点数
+    public int[] inDegreeHistogram() {
+        return histogram(graph::inDegree);
+    }
+
+    // 从每个节点出发可到达的节点数（包括自身）
+    public long[] reachableCounts() {
+        long[] perComponent = componentReachability();
+        int[] comp = componentOf();
+        long[] result = new long[graph.nodeCount()];
+        for (int v = 0; v < result.length; v++) {
+            result[v] = perComponent[comp[v]];
+        }
+        return result;
+    }
+
+    // 单词不存在时返回 0
+    public long reachableCount(String word) {
+        int v = graph.indexOf(word);
+        return v < 0 ? 0 : componentReachability()[componentOf()[v]];
+    }
+
+    GraphSnapshot graph() {
+        return graph;
+    }
+
+    /**
+     * 结构概要，便于打印或序列化为JSON
+     * includeReachability 为 true 时附带 averageReachable；首次计算可达性需要 O(C^2/64)，C 为分量数，结果会被缓存
+     */
+    public Map<String, Object> summary(boolean includeReachability) {
+        int n = graph.nodeCount();
+        Condensation dag = condensation();
+        int largest = 0;
+        int singletons = 0;
+        for (int c = 0; c < dag.componentCount(); c++) {
+            largest = Math.max(largest, dag.size(c));
+            if (dag.size(c) == 1) {
+                singletons++;
+            }
+        }
+        int[] out = outDegreeHistogram();
+        int[] in = inDegreeHistogram();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("nodes", n);
+        result.put("edges", graph.edgeCount());
+        result.put("components", dag.componentCount());
+        result.put("largestComponent", largest);
+        result.put("singletonComponents", singletons);
+        result.put("condensationEdges", dag.edgeCount());
+        result.put("danglingNodes", out.length > 0 ? out[0] : 0);
+        result.put("sourceNodes", in.length > 0 ? in[0] : 0);
+        result.put("maxOutDegree", out.length - 1);
+        result.put("maxInDegree", in.length - 1);
+        if (includeReachability) {
+            long reachSum = 0;
+            for (long count : reachableCounts()) {
+                reachSum += count;
+            }
+            result.put("averageReachable", n == 0 ? 0.0 : (double) reachSum / n);
+        }
+        return result;
+    }
+
+    private int[] histogram(IntUnaryOperator degree) {
+        int n = graph.nodeCount();
+        if (n < PARALLEL_THRESHOLD) {
+            int max = -1;
+            for (int v = 0; v < n; v++) {
+                max = Math.max(max, degree.applyAsInt(v));
+            }
+            int[] counts = new int[max + 1];
+            for (int v = 0; v < n; v++) {
+                counts[degree.applyAsInt(v)]++;
+            }
+            return counts;
+        }
+        int max = IntStream.range(0, n).parallel().map(degree).max().orElse(-1);
+        return IntStream.range(0, n).parallel().collect(
+                () -> new int[max + 1],
+                (counts, v) -> counts[degree.applyAsInt(v)]++,
+                (a, b) -> {
+                    for (int i = 0; i < a.length; i++) {
+                        a[i] += b[i];
+                    }
+                });
+    }
+
+    // 迭代版 Tarjan
+    private void computeComponents() {
+        int n = graph.nodeCount();
+        int[] index = new int[n];
+        int[] low = new int[n];
+        int[] comp = new int[n];
+        int[] nextEdge = new int[n];
+        boolean[] onStack = new boolean[n];
+        int[] stack = new int[n];
+        int[] callStack = new int[n];
+        Arrays.fill(index, -1);
+        int counter = 0;
+        int stackTop = 0;
+        int components = 0;
+
+        for (int root = 0; root < n; root++) {
+            if (index[root] != -1) {
+                continue;
+            }
+            int callTop = 0;
+            index[root] = low[root] = counter++;
+            stack[stackTop++] = root;
+            onStack[root] = true;
+            nextEdge[root] = graph.outStart(root);
+            callStack[callTop++] = root;
+
+            while (callTop > 0) {
+                int v = callStack[callTop - 1];
+                if (nextEdge[v] < graph.outEnd(v)) {
+                    int w = graph.outTarget(nextEdge[v]++);
+                    if (index[w] == -1) {
+                        index[w] = low[w] = counter++;
+                        stack[stackTop++] = w;
+                        onStack[w] = true;
+                        nextEdge[w] = graph.outStart(w);
+                        callStack[callTop++] = w;
+                    } else if (onStack[w]) {
+                        low[v] = Math.min(low[v], index[w]);
+                    }
+                    continue;
+                }
+                // v 的所有出边处理完毕，相当于递归返回
+                callTop--;
+                if (callTop > 0) {
+                    int parent = callStack[callTop - 1];
+                    low[parent] = Math.min(low[parent], low[v]);
+                }
+                if (low[v] == index[v]) {
+                    int w;
+                    do {
+                        w = stack[--stackTop];
+                        onStack[w] = false;
+                        comp[w] = components;
+                    } while (w != v);
+                    components++;
+                }
+            }
+        }
+        componentOf = comp;
+        componentCount = components;
+    }
+
+    /**
+     * 每个分量可到达的节点数
+     * 以64个目标分量为一批，用 long 位掩码沿逆拓扑序传播可达性，内存为 O(分量数)；
+     * 各批之间相互独立，分量较多时并行计算
+     */
+    private synchronized long[] componentReachability() {
+        if (componentReach != null) {
+            return componentReach;
+        }
+        Condensation dag = condensation();
+        int c = dag.componentCount();
+        long[] reach = new long[c];
+        int batches = (c + 63) / 64;
+        IntStream batchStream = IntStream.range(0, batches);
+        if (c >= PARALLEL_THRESHOLD) {
+            batchStream = batchStream.parallel();
+        }
+        batchStream.forEach(batch -> {
+            int base = batch * 64;
+            // 本批分量都只含一个节点时（最常见的情况）直接用 bitCount 计数
+            boolean unitSizes = true;
+            for (int x = base; x < Math.min(c, base + 64); x++) {
+                unitSizes &= dag.size(x) == 1;
+            }
+            long[] mask = new long[c];
+            long[] partial = new long[c];
+            // 分量编号是逆拓扑序，后继的编号更小，因此按编号递增处理即可；
+            // 编号小于 base 的分量不可能到达本批分量，直接跳过
+            for (int x = base; x < c; x++) {
+                long bits = (x >= base && x < base + 64) ? 1L << (x - base) : 0L;
+                for (int e = dag.start(x); e < dag.end(x); e++) {
+                    bits |= mask[dag.target(e)];
+                }
+                mask[x] = bits;
+                if (unitSizes) {
+                    partial[x] = Long.bitCount(bits);
+                    continue;
+                }
+                long total = 0;
+                while (bits != 0) {
+                    total += dag.size(base + Long.numberOfTrailingZeros(bits));
+                    bits &= bits - 1;
+                }
+                partial[x] = total;
+            }
+            synchronized (reach) {
+                for (int x = base; x < c; x++) {
+                    reach[x] += partial[x];
+                }
+            }
+        });
+        componentReach = reach;
+        return reach;
+    }
+
+    /**
+     * 缩点图：每个强连通分量作为一个节点，分量之间的边去重，权重为原边权重之和
+     */
+    public static class Condensation {
+        private final int[] sizes;
+        private final int[] offsets;
+        private final int[] targets;
+        private final long[] weights;
+
+        Condensation(GraphSnapshot graph, int[] componentOf, int componentCount) {
+            int n = graph.nodeCount();
+            sizes = new int[componentCount];
+            for (int v = 0; v < n; v++) {
+                sizes[componentOf[v]]++;
+            }
+            // 按分量对节点做计数排序
+            int[] start = new int[componentCount + 1];
+            for (int x = 0; x < componentCount; x++) {
+                start[x + 1] = start[x] + sizes[x];
+            }
+            int[] members = new int[n];
+            int[] cursor = Arrays.copyOf(start, componentCount);
+            for (int v = 0; v < n; v++) {
+                members[cursor[componentOf[v]]++] = v;
+            }
+
+            int[] lastSeen = new int[componentCount];
+            int[] position = new int[componentCount];
+            Arrays.fill(lastSeen, -1);
+            offsets = new int[componentCount + 1];
+            int[] dagTargets = new int[Math.max(16, graph.edgeCount() / 4)];
+            long[] dagWeights = new long[dagTargets.length];
+            int count = 0;
+            for (int x = 0; x < componentCount; x++) {
+                offsets[x] = count;
+                for (int i = start[x]; i < start[x + 1]; i++) {
+                    int v = members[i];
+                    for (int e = graph.outStart(v); e < graph.outEnd(v); e++) {
+                        int y = componentOf[graph.outTarget(e)];
+                        if (y == x) {
+                            continue;
+                        }
+                        if (lastSeen[y] == x) {
+                            dagWeights[position[y]] += graph.outWeight(e);
+                            continue;
+                        }
+                        if (count == dagTargets.length) {
+                            dagTargets = Arrays.copyOf(dagTargets, count * 2);
+                            dagWeights = Arrays.copyOf(dagWeights, count * 2);
+                        }
+                        lastSeen[y] = x;
+                        position[y] = count;
+                        dagTargets[count] = y;
+                        dagWeights[count] = graph.outWeight(e);
+                        count++;
+                    }
+                }
+            }
+            offsets[componentCount] = count;
+            targets = Arrays.copyOf(dagTargets, count);
+            weights = Arrays.copyOf(dagWeights, count);
+        }
+
+        public int componentCount() {
+            return sizes.length;
+        }
+
+        public int edgeCount() {
+            return targets.length;
+        }
+
+        // 分量包含的节点数
+        public int size(int component) {
+            return sizes[component];
+        }
+
+        // 分量 x 的出边为 [start(x), end(x))
+        public int start(int component) {
+            return offsets[component];
+        }
+
+        public int end(int component) {
+            return offsets[component + 1];
+        }
+
+        public int target(int edge) {
+            return targets[edge];
+        }
+
+        public long weight(int edge) {
+            return weights[edge];
+        }
+    }
+}
@@ -0,0 +1,81 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GraphAnalyticsTest {
+
+    private static GraphAnalytics analyticsOf(List<String> words) {
+        return new GraphAnalytics(GraphFixtures.graphOf(words).snapshot());
+    }
+
+    @Test
+    void testComponentsAndCondensation() {
+        // a <-> b 构成一个分量，c -> d 是链
+        GraphAnalytics analytics = analyticsOf(Arrays.asList("a", "b", "a", "c", "d"));
+        GraphSnapshot snapshot = analytics.graph();
+        int[] comp = analytics.componentOf();
+        int a = comp[snapshot.indexOf("a")];
+        int b = comp[snapshot.indexOf("b")];
+        int c = comp[snapshot.indexOf("c")];
+        int d = comp[snapshot.indexOf("d")];
+        assertEquals(3, analytics.componentCount());
+        assertEquals(a, b);
+        assertNotEquals(a, c);
+        // 逆拓扑序：后继分量编号更小
+        assertTrue(d < c);
+        assertTrue(c < a);
+        assertEquals(2, analytics.condensation().edgeCount());
+    }
+
+    @Test
+    void testReachableCounts() {
+        GraphAnalytics analytics = analyticsOf(Arrays.asList("a", "b", "a", "c", "d"));
+        assertEquals(4, analytics.reachableCount("a"));
+        assertEquals(4, analytics.reachableCount("b"));
+        assertEquals(2, analytics.reachableCount("c"));
+        assertEquals(1, analytics.reachableCount("d"));
+        assertEquals(0, analytics.reachableCount("missing"));
+    }
+
+    @Test
+    void testDegreeHistograms() {
+        GraphAnalytics analytics = analyticsOf(Arrays.asList("a", "b", "a", "c", "d"));
+        // 出度：a=2, b=1, c=1, d=0
+        assertArrayEquals(new int[]{1, 2, 1}, analytics.outDegreeHistogram());
+        // 入度：a=1, b=1, c=1, d=1
+        assertArrayEquals(new int[]{0, 4}, analytics.inDegreeHistogram());
+        Map<String, Object> summary = analytics.summary(false);
+        assertEquals(1, summary.get("danglingNodes"));
+        assertFalse(summary.containsKey("averageReachable"));
+        // 可达数 a=4, b=4, c=2, d=1
+        assertEquals(11 / 4.0, analytics.summary(true).get("averageReachable"));
+    }
+
+    @Test
+    void testDeepChainDoesNotOverflow() {
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < 50_000; i++) {
+            words.add("w" + i);
+        }
+        GraphAnalytics analytics = analyticsOf(words);
+        assertEquals(50_000, analytics.componentCount());
+        assertEquals(50_000, analytics.reachableCount("w0"));
+    }
+
+    @Test
+    void testAnalyticsCachedPerSnapshot() {
+        WordGraph graph = new WordGraph();
+        graph.buildGraph(Arrays.asList("a", "b", "a"));
+        GraphAnalytics analytics = graph.analytics();
+        assertSame(analytics, graph.analytics());
+        graph.buildGraph(Arrays.asList("a", "c"));
+        GraphAnalytics rebuilt = graph.analytics();
+        assertNotSame(analytics, rebuilt);
+        assertEquals(3, rebuilt.reachableCount("a"));
+    }
+}
@@ -0,0 +1,101 @@
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * 各测试共用的建图、临时语料和批处理辅助方法
+ */
+final class GraphFixtures {
+
+    //使用临时语料文件的测试步骤
+    interface CorpusAction {
+        void run(String corpus) throws Exception;
+    }
+
+    private GraphFixtures() {
+    }
+
+    // 以空格分隔的单词建图
+    static WordGraph graphOf(String text) {
+        return graphOf(Arrays.asList(text.split(" ")));
+    }
+
+    static WordGraph graphOf(List<String> words) {
+        WordGraph graph = new WordGraph();
+        graph.buildGraph(words);
+        return graph;
+    }
+
+    // 长度为 n 的单链，单词只含字母，便于同时用于 TextProcessor 建图
+    static List<String> chain(int n) {
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            StringBuilder word = new StringBuilder("w");
+            for (int v = i; v > 0; v /= 26) {
+                word.append((char) ('a' + v % 26));
+            }
+            words.add(word.toString());
+        }
+        return words;
+    }
+
+    // 在栈很小的线程中运行，确认算法不依赖递归深度
+    static void runWithSmallStack(Runnable task) throws InterruptedException {
+        Throwable[] failure = new Throwable[1];
+        Thread thread = new Thread(null, () -> {
+            try {
+                task.run();
+            } catch (Throwable e) {
+                failure[0] = e;
+            }
+        }, "small-stack", 256 << 10);
+        thread.start();
+        thread.join();
+        if (failure[0] != null) {
+            fail(failure[0].toString());
+        }
+    }
+
+    // 把 text 写入临时语料文件执行 action，结束后删除文件
+    static void withCorpus(String text, CorpusAction action) throws Exception {
+        Path corpus = Files.createTempFile("corpus", ".txt");
+        try {
+            Files.writeString(corpus, text);
+            action.run(corpus.toString());
+        } finally {
+            Files.deleteIfExists(corpus);
+        }
+    }
+
+    // 对临时语料和查询文件运行批处理，返回去掉 micros 的输出行
+    static List<String> runBatch(String text, List<String> queries, String... options) throws Exception {
+        List<String> output = new ArrayList<>();
+        Path queryFile = Files.createTempFile("queries", ".txt");
+        Path out = Files.createTempFile("out", ".jsonl");
+        try {
+            Files.write(queryFile, queries, StandardCharsets.UTF_8);
+            withCorpus(text, corpus -> {
+                List<String> args = new ArrayList<>(List.of(corpus, queryFile.toString(), "--out", out.toString()));
+                args.addAll(Arrays.asList(options));
+                BatchRunner.main(args.toArray(new String[0]));
+            });
+            for (String line : Files.readAllLines(out, StandardCharsets.UTF_8)) {
+                output.add(withoutMicros(line));
+            }
+        } finally {
+            Files.deleteIfExists(queryFile);
+            Files.deleteIfExists(out);
+        }
+        return output;
+    }
+
+    // 去掉结果中随时间变化的 micros 字段
+    static String withoutMicros(String line) {
+        return line.replaceAll(",\"micros\":\\d+", "");
+    }
+}
@@ -0,0 +1,79 @@
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+
+/**
+ * 后台运行的图分析任务句柄：通过 future() 获取结果，progress() 查看进度（0 到 1），cancel() 请求取消
+ * 取消是协作式的：任务在每轮迭代或每个目标之间检查标志，之后 future 以 CancellationException 结束
+ * 直接取消 future() 与调用 cancel() 效果相同；任务已经完成时取消无效
+ */
+public class GraphJob<T> {
+    private final CompletableFuture<T> future = new CompletableFuture<>();
+    private volatile double progress;
+    private volatile boolean cancelled;
+
+    private GraphJob() {
+        // future 被取消（无论通过 cancel() 还是 future().cancel()）时通知正在运行的任务
+        future.whenComplete((result, error) -> {
+            if (future.isCancelled()) {
+                cancelled = true;
+            }
+        });
+    }
+
+    // 在 executor 上运行 task，task 通过传入的句柄汇报进度和检查取消
+    static <T> GraphJob<T> submit(Executor executor, Function<GraphJob<T>, T> task) {
+        GraphJob<T> job = new GraphJob<>();
+        try {
+            executor.execute(() -> {
+                if (job.cancelled) {
+                    return;
+                }
+                try {
+                    T result = task.apply(job);
+                    job.progress = 1.0;
+                    job.future.complete(result);
+                } catch (Throwable e) {
+                    job.future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            job.future.completeExceptionally(e);
+        }
+        return job;
+    }
+
+    public CompletableFuture<T> future() {
+        return future;
+    }
+
+    public double progress() {
+        return progress;
+    }
+
+    // 任务已经完成时返回 false，结果不受影响
+    public boolean cancel() {
+        return future.cancel(false);
+    }
+
+    public boolean isCancelled() {
+        return future.isCancelled();
+    }
+
+    public boolean isDone() {
+        return future.isDone();
+    }
+
+    void report(double value) {
+        progress = value;
+    }
+
+    // 已请求取消时抛出 CancellationException 结束任务
+    void checkCancelled() {
+        if (cancelled) {
+            throw new CancellationException("Job cancelled");
+        }
+    }
+}
@@ -0,0 +1,103 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GraphJobTest {
+
+    @Test
+    void testConcurrentJobsMatchSynchronousResults() throws Exception {
+        WordGraph graph = GraphFixtures.graphOf("to explore strange new worlds to seek out new life and new civilizations");
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            GraphJob<Map<String, Double>> pageRank = graph.pageRankAsync(0.85, executor);
+            GraphJob<Map<String, List<List<String>>>> paths = graph.shortestPathsAsync("to", executor);
+            GraphJob<List<String>> walk = graph.randomWalkAsync(new Random(1), executor);
+
+            assertEquals(graph.computePageRank(0.85), pageRank.future().get(5, TimeUnit.SECONDS));
+            assertEquals(graph.findShortestPaths("to", null), paths.future().get(5, TimeUnit.SECONDS));
+            assertFalse(walk.future().get(5, TimeUnit.SECONDS).isEmpty());
+            assertEquals(1.0, pageRank.progress());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testJobRunsOnSnapshotTakenAtSubmission() throws Exception {
+        WordGraph graph = GraphFixtures.graphOf("a b c d");
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            GraphJob<Map<String, List<List<String>>>> paths = graph.shortestPathsAsync("a", executor);
+            // 提交之后修改图不影响任务的结果
+            graph.buildGraph(Arrays.asList("d", "e"));
+            assertEquals(3, paths.future().get(5, TimeUnit.SECONDS).size());
+            assertEquals(4, graph.findShortestPaths("a", null).size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testCancelBeforeStart() {
+        WordGraph graph = GraphFixtures.graphOf("a b c");
+        GraphJob<Map<String, Double>> job = graph.pageRankAsync(0.85, command -> {
+            // 不执行任务，模拟排队中的任务
+        });
+        assertTrue(job.cancel());
+        assertTrue(job.isCancelled());
+        assertThrows(CancellationException.class, () -> job.future().join());
+    }
+
+    @Test
+    void testCancelAfterCompletionHasNoEffect() throws Exception {
+        WordGraph graph = GraphFixtures.graphOf("a b c");
+        GraphJob<Map<String, Double>> job = graph.pageRankAsync(0.85, Runnable::run);
+        assertTrue(job.isDone());
+        assertFalse(job.cancel());
+        assertFalse(job.isCancelled());
+        assertEquals(graph.computePageRank(0.85), job.future().get());
+    }
+
+    @Test
+    void testCancelThroughFutureStopsRunningTask() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch stopped = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            GraphJob<Integer> job = GraphJob.submit(executor, handle -> {
+                started.countDown();
+                try {
+                    while (true) {
+                        handle.checkCancelled();
+                        Thread.onSpinWait();
+                    }
+                } finally {
+                    stopped.countDown();
+                }
+            });
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            assertTrue(job.future().cancel(true));
+            // 任务在下一次检查时结束
+            assertTrue(stopped.await(5, TimeUnit.SECONDS));
+            assertTrue(job.isCancelled());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testUnknownStartWord() {
+        WordGraph graph = GraphFixtures.graphOf("a b c");
+        assertThrows(IllegalArgumentException.class, () -> graph.shortestPathsAsync("missing"));
+    }
+}
@@ -0,0 +1,181 @@
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 图的剪枝与压缩：去掉权重低于 minEdgeWeight 的边和频次低于 minNodeFrequency 的单词，
+ * 并只按频次保留前 maxVocabulary 个单词
+ * 单词频次近似为 max(入边权重和, 出边权重和)：语料中的每次出现至多贡献一条入边和一条出边
+ * 剪枝后按 BFS 顺序重新编号：从频次最高的未访问单词开始，沿权重从大到小的出边展开，
+ * 先后访问的单词在 CSR 数组中相邻，遍历时缓存命中率更高
+ */
+public class GraphPruner {
+    // 邻接表估算：每个单词一个外层 HashMap.Node、一个内层 HashMap 及其表，每条边一个 Node、一个 Integer 和表槽
+    private static final long MAP_BYTES_PER_NODE = 40 + 48 + 16;
+    private static final long MAP_BYTES_PER_EDGE = 32 + 16 + 8;
+    private static final long STRING_OVERHEAD = 40;
+
+    private final int minEdgeWeight;
+    private final int minNodeFrequency;
+    private final int maxVocabulary;
+
+    public GraphPruner(int minEdgeWeight, int minNodeFrequency, int maxVocabulary) {
+        if (minEdgeWeight < 1 || minNodeFrequency < 0 || maxVocabulary < 1) {
+            throw new IllegalArgumentException("Invalid pruning thresholds");
+        }
+        this.minEdgeWeight = minEdgeWeight;
+        this.minNodeFrequency = minNodeFrequency;
+        this.maxVocabulary = maxVocabulary;
+    }
+
+    // 解析命令行参数 "最小边权重,最小单词频次[,词表上限]"
+    public static GraphPruner parse(String spec) {
+        String[] parts = spec.split(",");
+        if (parts.length < 2 || parts.length > 3) {
+            throw new IllegalArgumentException("Usage: --prune <minEdgeWeight>,<minNodeFrequency>[,<maxVocabulary>]");
+        }
+        int maxVocabulary = parts.length > 2 ? Integer.parseInt(parts[2].trim()) : Integer.MAX_VALUE;
+        return new GraphPruner(Integer.parseInt(parts[0].trim()), Integer.parseInt(parts[1].trim()), maxVocabulary);
+    }
+
+    public Result prune(WordGraph graph) {
+        return prune(graph.snapshot());
+    }
+
+    public Result prune(GraphSnapshot graph) {
+        int n = graph.nodeCount();
+        long[] frequency = new long[n];
+        int keptCount = 0;
+        for (int v = 0; v < n; v++) {
+            long out = 0;
+            for (int e = graph.outStart(v); e < graph.outEnd(v); e++) {
+                out += graph.outWeight(e);
+            }
+            long in = 0;
+            for (int e = graph.inStart(v); e < graph.inEnd(v); e++) {
+                in += graph.inWeight(e);
+            }
+            frequency[v] = Math.max(in, out);
+            if (frequency[v] >= minNodeFrequency) {
+                keptCount++;
+            }
+        }
+        // 保留的单词按频次从高到低，作为 BFS 的起点顺序
+        int[] seeds = TopK.largestIndices(n, v -> frequency[v] >= minNodeFrequency ? frequency[v] : -1,
+                Math.min(keptCount, maxVocabulary));
+        boolean[] kept = new boolean[n];
+        for (int v : seeds) {
+            kept[v] = true;
+        }
+
+        int[] newId = new int[n];
+        Arrays.fill(newId, -1);
+        int[] order = new int[seeds.length];
+        int assigned = 0;
+        for (int seed : seeds) {
+            if (newId[seed] >= 0) {
+                continue;
+            }
+            int head = assigned;
+            newId[seed] = assigned;
+            order[assigned++] = seed;
+            while (head < assigned) {
+                int u = order[head++];
+                for (int e = graph.outStart(u); e < graph.outEnd(u); e++) {
+                    int v = graph.outTarget(e);
+                    if (graph.outWeight(e) >= minEdgeWeight && kept[v] && newId[v] < 0) {
+                        newId[v] = assigned;
+                        order[assigned++] = v;
+                    }
+                }
+            }
+        }
+
+        String[] words = new String[assigned];
+        int[] offsets = new int[assigned + 1];
+        int edgeCount = 0;
+        for (int i = 0; i < assigned; i++) {
+            int u = order[i];
+            words[i] = graph.word(u);
+            for (int e = graph.outStart(u); e < graph.outEnd(u); e++) {
+                if (graph.outWeight(e) >= minEdgeWeight && kept[graph.outTarget(e)]) {
+                    edgeCount++;
+                }
+            }
+            offsets[i + 1] = edgeCount;
+        }
+        int[] targets = new int[edgeCount];
+        int[] weights = new int[edgeCount];
+        int pos = 0;
+        for (int i = 0; i < assigned; i++) {
+            int u = order[i];
+            for (int e = graph.outStart(u); e < graph.outEnd(u); e++) {
+                if (graph.outWeight(e) >= minEdgeWeight && kept[graph.outTarget(e)]) {
+                    targets[pos] = newId[graph.outTarget(e)];
+                    weights[pos] = graph.outWeight(e);
+                    pos++;
+                }
+            }
+        }
+        return new Result(graph, new GraphSnapshot(words, offsets, targets, weights));
+    }
+
+    // 估计同等规模的 WordGraph（邻接表 + 快照）占用的堆内存字节数
+    static long estimateBytes(GraphSnapshot graph) {
+        long bytes = graph.memoryBytes();
+        for (int v = 0; v < graph.nodeCount(); v++) {
+            bytes += MAP_BYTES_PER_NODE + STRING_OVERHEAD + graph.word(v).length();
+        }
+        return bytes + MAP_BYTES_PER_EDGE * graph.edgeCount();
+    }
+
+    /**
+     * 剪枝结果：压缩后的快照和内存估算
+     */
+    public static final class Result {
+        private final GraphSnapshot original;
+        private final GraphSnapshot pruned;
+        private final long bytesBefore;
+        private final long bytesAfter;
+
+        private Result(GraphSnapshot original, GraphSnapshot pruned) {
+            this.original = original;
+            this.pruned = pruned;
+            this.bytesBefore = estimateBytes(original);
+            this.bytesAfter = estimateBytes(pruned);
+        }
+
+        public GraphSnapshot graph() {
+            return pruned;
+        }
+
+        // 由压缩后的快照生成单词图，节点顺序与新编号一致
+        public WordGraph toWordGraph() {
+            return new WordGraph(pruned);
+        }
+
+        public long bytesBefore() {
+            return bytesBefore;
+        }
+
+        public long bytesAfter() {
+            return bytesAfter;
+        }
+
+        public long savedBytes() {
+            return bytesBefore - bytesAfter;
+        }
+
+        public Map<String, Object> summary() {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("nodesBefore", original.nodeCount());
+            result.put("nodesAfter", pruned.nodeCount());
+            result.put("edgesBefore", original.edgeCount());
+            result.put("edgesAfter", pruned.edgeCount());
+            result.put("bytesBefore", bytesBefore);
+            result.put("bytesAfter", bytesAfter);
+            result.put("savedBytes", savedBytes());
+            return result;
+        }
+    }
+}
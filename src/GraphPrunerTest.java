@@ -0,0 +1,57 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GraphPrunerTest {
+
+    @Test
+    void testMinEdgeWeightAndBfsOrder() {
+        // a -> b 权重 2，其余边权重 1
+        WordGraph graph = GraphFixtures.graphOf("a b a b a c d");
+        GraphPruner.Result result = new GraphPruner(2, 0, 100).prune(graph);
+        GraphSnapshot pruned = result.graph();
+        assertEquals(4, pruned.nodeCount());
+        assertEquals(2, pruned.edgeCount());
+        // 频次最高的 a 编号为 0，沿保留的边访问到 b
+        assertEquals("a", pruned.word(0));
+        assertEquals("b", pruned.word(1));
+        WordGraph compacted = result.toWordGraph();
+        assertEquals(2, compacted.getEdgeWeight("a", "b"));
+        assertEquals(0, compacted.getEdgeWeight("a", "c"));
+        assertSame(pruned, compacted.snapshot());
+    }
+
+    @Test
+    void testMinNodeFrequencyAndVocabularyCap() {
+        WordGraph graph = GraphFixtures.graphOf("the cat the dog the cat sat");
+        GraphSnapshot byFrequency = new GraphPruner(1, 2, 100).prune(graph).graph();
+        assertEquals(2, byFrequency.nodeCount());
+        assertEquals(-1, byFrequency.indexOf("sat"));
+
+        GraphPruner.Result capped = new GraphPruner(1, 0, 1).prune(graph);
+        assertEquals(1, capped.graph().nodeCount());
+        assertEquals("the", capped.graph().word(0));
+        Map<String, Object> summary = capped.summary();
+        assertEquals(4, summary.get("nodesBefore"));
+        assertTrue(capped.savedBytes() > 0);
+    }
+
+    @Test
+    void testCompactedGraphQueries() {
+        WordGraph graph = GraphFixtures.graphOf("a b c a b c a b d");
+        WordGraph compacted = new GraphPruner(2, 0, 100).prune(graph).toWordGraph();
+        Map<String, List<List<String>>> paths = compacted.findShortestPaths("a", null);
+        assertEquals(List.of(List.of("a", "b", "c")), paths.get("c"));
+        assertTrue(paths.get("d").isEmpty());
+        assertEquals(List.of("b"), compacted.getBridgeWords("a", "c"));
+    }
+
+    @Test
+    void testParse() {
+        assertThrows(IllegalArgumentException.class, () -> GraphPruner.parse("2"));
+        assertEquals(1, GraphPruner.parse("1,0,1").prune(GraphFixtures.graphOf("x y")).graph().nodeCount());
+    }
+}
@@ -0,0 +1,189 @@
+import java.util.*;
+
+/**
+ * 单词图的只读快照：节点编号为 0..n-1，出边和入边都以 CSR（偏移数组 + 目标数组 + 权重数组）存放
+ * 图算法在快照上按 int 下标遍历，不再反复查询嵌套的 HashMap
+ * 每个节点的出边和入边都按权重从大到小排好序，取前 K 个后继/前驱只需 O(K)
+ * 快照创建后不再变化，可以被多个线程同时读取
+ */
+public final class GraphSnapshot {
+    private final String[] words;
+    private final Map<String, Integer> index;
+    private final int[] outOffsets;
+    private final int[] outTargets;
+    private final int[] outWeights;
+    private final int[] inOffsets;
+    private final int[] inSources;
+    private final int[] inWeights;
+
+    GraphSnapshot(String[] words, int[] outOffsets, int[] outTargets, int[] outWeights) {
+        this.words = words;
+        this.outOffsets = outOffsets;
+        this.outTargets = outTargets;
+        this.outWeights = outWeights;
+        sortByWeight(outOffsets, outTargets, outWeights);
+        this.index = new HashMap<>(words.length * 2);
+        for (int i = 0; i < words.length; i++) {
+            index.put(words[i], i);
+        }
+        // 由出边生成入边
+        int n = words.length;
+        inOffsets = new int[n + 1];
+        for (int e = 0; e < outTargets.length; e++) {
+            inOffsets[outTargets[e] + 1]++;
+        }
+        for (int i = 0; i < n; i++) {
+            inOffsets[i + 1] += inOffsets[i];
+        }
+        inSources = new int[outTargets.length];
+        inWeights = new int[outTargets.length];
+        int[] cursor = Arrays.copyOf(inOffsets, n);
+        for (int v = 0; v < n; v++) {
+            for (int e = outOffsets[v]; e < outOffsets[v + 1]; e++) {
+                int pos = cursor[outTargets[e]]++;
+                inSources[pos] = v;
+                inWeights[pos] = outWeights[e];
+            }
+        }
+        sortByWeight(inOffsets, inSources, inWeights);
+    }
+
+    // 将每个节点的边按权重降序排列，权重相同时按节点编号升序
+    private static void sortByWeight(int[] offsets, int[] nodes, int[] weights) {
+        long[] buffer = new long[16];
+        for (int v = 0; v + 1 < offsets.length; v++) {
+            int from = offsets[v];
+            int length = offsets[v + 1] - from;
+            if (length < 2) {
+                continue;
+            }
+            if (buffer.length < length) {
+                buffer = new long[Math.max(length, buffer.length * 2)];
+            }
+            for (int i = 0; i < length; i++) {
+                buffer[i] = ((long) (Integer.MAX_VALUE - weights[from + i]) << 32) | nodes[from + i];
+            }
+            Arrays.sort(buffer, 0, length);
+            for (int i = 0; i < length; i++) {
+                nodes[from + i] = (int) buffer[i];
+                weights[from + i] = Integer.MAX_VALUE - (int) (buffer[i] >>> 32);
+            }
+        }
+    }
+
+    //由邻接表构建快照，只作为边终点出现的单词也会成为节点
+    static GraphSnapshot of(Map<String, Map<String, Integer>> adjacencyList) {
+        Map<String, Integer> ids = new LinkedHashMap<>();
+        for (String word : adjacencyList.keySet()) {
+            ids.put(word, ids.size());
+        }
+        int edgeCount = 0;
+        for (Map<String, Integer> edges : adjacencyList.values()) {
+            for (String target : edges.keySet()) {
+                ids.putIfAbsent(target, ids.size());
+            }
+            edgeCount += edges.size();
+        }
+        String[] words = ids.keySet().toArray(new String[0]);
+        int[] offsets = new int[words.length + 1];
+        int[] targets = new int[edgeCount];
+        int[] weights = new int[edgeCount];
+        int pos = 0;
+        for (int v = 0; v < words.length; v++) {
+            offsets[v] = pos;
+            Map<String, Integer> edges = adjacencyList.get(words[v]);
+            if (edges != null) {
+                for (Map.Entry<String, Integer> edge : edges.entrySet()) {
+                    targets[pos] = ids.get(edge.getKey());
+                    weights[pos] = edge.getValue();
+                    pos++;
+                }
+            }
+        }
+        offsets[words.length] = pos;
+        return new GraphSnapshot(words, offsets, targets, weights);
+    }
+
+    public int nodeCount() {
+        return words.length;
+    }
+
+    public int edgeCount() {
+        return outTargets.length;
+    }
+
+    public String word(int node) {
+        return words[node];
+    }
+
+    // 不存在时返回 -1
+    public int indexOf(String word) {
+        Integer id = index.get(word);
+        return id == null ? -1 : id;
+    }
+
+    // 节点 v 的出边为 [outStart(v), outEnd(v))
+    public int outStart(int v) {
+        return outOffsets[v];
+    }
+
+    public int outEnd(int v) {
+        return outOffsets[v + 1];
+    }
+
+    public int outDegree(int v) {
+        return outOffsets[v + 1] - outOffsets[v];
+    }
+
+    public int outTarget(int edge) {
+        return outTargets[edge];
+    }
+
+    public int outWeight(int edge) {
+        return outWeights[edge];
+    }
+
+    // 出边 edge 的起点（二分查找偏移数组）
+    public int outSource(int edge) {
+        int low = 0;
+        int high = words.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (outOffsets[mid] <= edge) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    // 节点 v 的入边为 [inStart(v), inEnd(v))
+    public int inStart(int v) {
+        return inOffsets[v];
+    }
+
+    public int inEnd(int v) {
+        return inOffsets[v + 1];
+    }
+
+    public int inDegree(int v) {
+        return inOffsets[v + 1] - inOffsets[v];
+    }
+
+    public int inSource(int edge) {
+        return inSources[edge];
+    }
+
+    public int inWeight(int edge) {
+        return inWeights[edge];
+    }
+
+    // 估计占用的堆内存字节数：CSR 数组和单词索引，不含单词字符串本身（与邻接表共享）
+    public long memoryBytes() {
+        long arrays = (long) Integer.BYTES * (outOffsets.length + inOffsets.length
+                + outTargets.length + outWeights.length + inSources.length + inWeights.length);
+        // 索引中每项：HashMap.Node 32 字节 + Integer 16 字节 + 约 2 个表槽
+        return arrays + (long) Integer.BYTES * words.length + 56L * words.length;
+    }
+}
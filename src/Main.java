@@ -4,10 +4,20 @@ import java.nio.file.*;
 
 public class Main {
     private static WordGraph graph;
+    // 与批处理和查询服务的默认分词相同
     private static TextProcessor processor = new TextProcessor();
     private static Scanner scanner = new Scanner(System.in, "UTF-8");
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws Exception {
+        // 带参数启动时进入非交互的批处理模式
+        if (args.length > 0 && "--batch".equals(args[0])) {
+            BatchRunner.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && "--serve".equals(args[0])) {
+            QueryServer.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
         showMainMenu();
     }
 
@@ -22,6 +32,7 @@ public class Main {
             System.out.println("6. 计算最短路径");
             System.out.println("7. 计算PageRank");
             System.out.println("8. 执行随机游走");
+            System.out.println("9. 图结构分析");
             System.out.println("0. 退出系统");
             System.out.print("请选择操作编号：");
 
@@ -36,6 +47,7 @@ public class Main {
                     case 6 -> findShortestPath();
                     case 7 -> computePageRank();
                     case 8 -> performRandomWalk();
+                    case 9 -> analyzeGraph();
                     case 0 -> {
                         System.out.println("感谢使用，再见！");
                         System.exit(0);
@@ -158,6 +170,20 @@ public class Main {
         }
     }
 
+    //强连通分量、度分布和可达性统计
+    private static void analyzeGraph() {
+        validateGraphExists();
+        GraphAnalytics analytics = graph.analytics();
+        analytics.summary(true).forEach((name, value) -> System.out.println(name + ": " + value));
+        int[] outDegrees = analytics.outDegreeHistogram();
+        System.out.println("出度分布：");
+        for (int degree = 0; degree < outDegrees.length; degree++) {
+            if (outDegrees[degree] > 0) {
+                System.out.println("  " + degree + ": " + outDegrees[degree]);
+            }
+        }
+    }
+
     private static void validateGraphExists() {
         if (graph == null || graph.nodeCount() == 0) {
             throw new IllegalStateException("请先构建单词图（选项1）");
@@ -0,0 +1,289 @@
+import java.util.*;
+
+/**
+ * k 阶单词图：节点是连续的 k 个单词（状态），边是"前 k 个词 -> 下一个词"的转移
+ * order 为 1 时与 WordGraph 的二元转移等价
+ * 存储方式：
+ *   单词映射为 int 编号；状态的 k 个编号打包（或哈希）成 long 键，存放在 LongIntHashMap 中
+ *   转移计数同样以 (状态编号 << 32 | 下一个词编号) 为键存放
+ *   每个状态的后继词按 CSR（offsets/targets 两个数组）整理，查询时无需创建对象
+ * 当 order <= 3 且词表小于 2^21 时状态键是精确打包的；否则使用 64 位哈希，
+ * 哈希冲突会在构建时被检测出来并抛出 IllegalStateException（概率约为 n^2 / 2^64）
+ */
+public class NGramWordGraph {
+    private static final int PACK_BITS = 21;
+    private static final int PACK_LIMIT = 1 << PACK_BITS;
+
+    private final int order;
+    private final Map<String, Integer> vocabulary = new HashMap<>();
+    private final List<String> words = new ArrayList<>();
+    // 上下文键 -> 状态编号
+    private final LongIntHashMap states = new LongIntHashMap();
+    // (状态编号 << 32 | 下一个词编号) -> 出现次数
+    private final LongIntHashMap transitions = new LongIntHashMap();
+    // 每个状态的 k 个词编号，连续存放
+    private int[] stateTokens = new int[64];
+    private int stateCount;
+
+    // 按状态整理的后继（CSR）
+    private int[] offsets = new int[1];
+    private int[] targets = new int[0];
+
+    public NGramWordGraph(int order) {
+        if (order < 1) {
+            throw new IllegalArgumentException("Order must be at least 1");
+        }
+        this.order = order;
+    }
+
+    public int order() {
+        return order;
+    }
+
+    public void buildGraph(List<String> text) {
+        addText(text);
+        rebuildSuccessors();
+    }
+
+    // 依次加入多段文本，段与段之间不产生转移（例如剪枝后被删除的词处断开）
+    public void buildGraphFromSegments(List<List<String>> segments) {
+        for (List<String> segment : segments) {
+            addText(segment);
+        }
+        rebuildSuccessors();
+    }
+
+    private void addText(List<String> text) {
+        int[] tokens = new int[text.size()];
+        for (int i = 0; i < tokens.length; i++) {
+            tokens[i] = tokenId(text.get(i));
+        }
+        int[] context = new int[order];
+        for (int i = 0; i + order <= tokens.length; i++) {
+            System.arraycopy(tokens, i, context, 0, order);
+            int state = stateOf(context, true);
+            if (i + order < tokens.length) {
+                transitions.addTo(((long) state << 32) | tokens[i + order], 1);
+            }
+        }
+    }
+
+    // 状态总数
+    public int nodeCount() {
+        return stateCount;
+    }
+
+    public int vocabularySize() {
+        return words.size();
+    }
+
+    // 上下文（取最后 order 个词）之后出现 next 的次数
+    public int getEdgeWeight(List<String> context, String next) {
+        int state = lookup(context);
+        Integer nextId = vocabulary.get(next);
+        if (state < 0 || nextId == null) {
+            return 0;
+        }
+        int count = transitions.get(((long) state << 32) | nextId);
+        return count == LongIntHashMap.MISSING ? 0 : count;
+    }
+
+    // 上下文（取最后 order 个词）之后可能出现的词
+    public List<String> nextWords(List<String> context) {
+        List<String> result = new ArrayList<>();
+        int state = lookup(context);
+        if (state < 0) {
+            return result;
+        }
+        for (int e = offsets[state]; e < offsets[state + 1]; e++) {
+            result.add(words.get(targets[e]));
+        }
+        return result;
+    }
+
+    /**
+     * 获取桥接词：bridge 紧跟在 context 之后，且 word2 紧跟在 (context 去掉首词 + bridge) 之后
+     */
+    public List<String> getBridgeWords(List<String> context, String word2) {
+        List<String> bridgeWords = new ArrayList<>();
+        int state = lookup(context);
+        Integer word2Id = vocabulary.get(word2);
+        if (state < 0 || word2Id == null) {
+            return bridgeWords;
+        }
+        int[] shifted = new int[order];
+        System.arraycopy(stateTokens, state * order + 1, shifted, 0, order - 1);
+        for (int e = offsets[state]; e < offsets[state + 1]; e++) {
+            shifted[order - 1] = targets[e];
+            int next = stateOf(shifted, false);
+            if (next >= 0 && transitions.get(((long) next << 32) | word2Id) != LongIntHashMap.MISSING) {
+                bridgeWords.add(words.get(targets[e]));
+            }
+        }
+        return bridgeWords;
+    }
+
+    /**
+     * 新文本插入桥接词，上下文取已生成文本的最后 order 个词（包括插入的桥接词）
+     * 已生成的词少于 order 个时不插入
+     */
+    public String generateNewTextWithBridges(String inputLine, TextProcessor processor) {
+        List<String> inputWords = processor.processText(inputLine);
+        if (inputWords.size() < 2) return inputLine;
+
+        List<String> output = new ArrayList<>();
+        Random random = new Random();
+        for (int i = 0; i < inputWords.size() - 1; i++) {
+            output.add(inputWords.get(i));
+            if (output.size() < order) {
+                continue;
+            }
+            List<String> bridges = getBridgeWords(output.subList(output.size() - order, output.size()),
+                    inputWords.get(i + 1));
+            if (!bridges.isEmpty()) {
+                output.add(bridges.get(random.nextInt(bridges.size())));
+            }
+        }
+        output.add(inputWords.get(inputWords.size() - 1));
+        return String.join(" ", output);
+    }
+
+    /**
+     * 随机游走：从随机状态出发，均匀选择后继词，遇到无后继的状态或重复的转移时结束
+     */
+    public List<String> randomWalk(Random random) {
+        if (stateCount == 0) {
+            throw new IllegalStateException("Graph is empty");
+        }
+        int state = random.nextInt(stateCount);
+        List<String> path = new ArrayList<>();
+        for (int i = 0; i < order; i++) {
+            path.add(words.get(stateTokens[state * order + i]));
+        }
+        LongIntHashMap visited = new LongIntHashMap();
+        int[] shifted = new int[order];
+        while (offsets[state + 1] > offsets[state]) {
+            int degree = offsets[state + 1] - offsets[state];
+            int next = targets[offsets[state] + random.nextInt(degree)];
+            path.add(words.get(next));
+            long transition = ((long) state << 32) | next;
+            if (visited.get(transition) != LongIntHashMap.MISSING) {
+                break;
+            }
+            visited.put(transition, 1);
+            System.arraycopy(stateTokens, state * order + 1, shifted, 0, order - 1);
+            shifted[order - 1] = next;
+            state = stateOf(shifted, false);
+            if (state < 0) {
+                break;
+            }
+        }
+        return path;
+    }
+
+    // 图结构占用的字节数（近似，不含单词字符串）
+    public long memoryBytes() {
+        return states.memoryBytes() + transitions.memoryBytes()
+                + (long) stateTokens.length * Integer.BYTES
+                + (long) (offsets.length + targets.length) * Integer.BYTES;
+    }
+
+    private int tokenId(String word) {
+        Integer id = vocabulary.get(word);
+        if (id == null) {
+            id = words.size();
+            vocabulary.put(word, id);
+            words.add(word);
+        }
+        return id;
+    }
+
+    // 将上下文（取最后 order 个词）转换为状态编号，不存在时返回 -1
+    private int lookup(List<String> context) {
+        if (context.size() < order) {
+            return -1;
+        }
+        int[] ids = new int[order];
+        int base = context.size() - order;
+        for (int i = 0; i < order; i++) {
+            Integer id = vocabulary.get(context.get(base + i));
+            if (id == null) {
+                return -1;
+            }
+            ids[i] = id;
+        }
+        return stateOf(ids, false);
+    }
+
+    private int stateOf(int[] context, boolean create) {
+        long key = contextKey(context);
+        int state = states.get(key);
+        if (state != LongIntHashMap.MISSING) {
+            if (!sameTokens(state, context)) {
+                if (create) {
+                    throw new IllegalStateException("Context hash collision");
+                }
+                return -1;
+            }
+            return state;
+        }
+        if (!create) {
+            return -1;
+        }
+        state = stateCount++;
+        if (stateCount * order > stateTokens.length) {
+            stateTokens = Arrays.copyOf(stateTokens, Math.max(stateTokens.length * 2, stateCount * order));
+        }
+        System.arraycopy(context, 0, stateTokens, state * order, order);
+        states.put(key, state);
+        return state;
+    }
+
+    private boolean sameTokens(int state, int[] context) {
+        for (int i = 0; i < order; i++) {
+            if (stateTokens[state * order + i] != context[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // 精确打包的键最高位为0，哈希得到的键最高位为1，两者不会混淆
+    private long contextKey(int[] context) {
+        if (order * PACK_BITS <= 63) {
+            boolean packable = true;
+            long key = 0;
+            for (int id : context) {
+                if (id >= PACK_LIMIT) {
+                    packable = false;
+                    break;
+                }
+                key = (key << PACK_BITS) | id;
+            }
+            if (packable) {
+                return key;
+            }
+        }
+        long hash = order;
+        for (int id : context) {
+            hash = LongIntHashMap.mix(hash * 31 + id);
+        }
+        return hash | Long.MIN_VALUE;
+    }
+
+    private void rebuildSuccessors() {
+        int[] newOffsets = new int[stateCount + 1];
+        transitions.forEach((key, count) -> newOffsets[(int) (key >>> 32) + 1]++);
+        for (int i = 0; i < stateCount; i++) {
+            newOffsets[i + 1] += newOffsets[i];
+        }
+        int[] newTargets = new int[transitions.size()];
+        int[] cursor = Arrays.copyOf(newOffsets, stateCount);
+        transitions.forEach((key, count) -> {
+            int pos = cursor[(int) (key >>> 32)]++;
+            newTargets[pos] = (int) key;
+        });
+        offsets = newOffsets;
+        targets = newTargets;
+    }
+}
@@ -0,0 +1,73 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NGramWordGraphTest {
+
+    private final List<String> words = Arrays.asList(
+            "the", "scientist", "carefully", "analyzed", "the", "data",
+            "wrote", "a", "detailed", "report", "and", "shared", "the", "report",
+            "with", "the", "team", "but", "the", "team", "requested", "more", "data",
+            "so", "the", "scientist", "analyzed", "it", "again");
+
+    private NGramWordGraph bigram;
+    private NGramWordGraph trigram;
+
+    @BeforeEach
+    void setUp() {
+        bigram = new NGramWordGraph(1);
+        bigram.buildGraph(words);
+        trigram = new NGramWordGraph(2);
+        trigram.buildGraph(words);
+    }
+
+    @Test
+    void testOrderOneMatchesWordGraph() {
+        WordGraph graph = new WordGraph();
+        graph.buildGraph(words);
+        assertEquals(graph.nodeCount(), bigram.nodeCount());
+        assertEquals(graph.getBridgeWords("analyzed", "again"), bigram.getBridgeWords(List.of("analyzed"), "again"));
+        assertEquals(graph.getEdgeWeight("the", "team"), bigram.getEdgeWeight(List.of("the"), "team"));
+    }
+
+    @Test
+    void testSecondOrderContext() {
+        assertEquals(List.of("scientist"), trigram.nextWords(List.of("so", "the")));
+        assertEquals(1, trigram.getEdgeWeight(List.of("report", "with", "the"), "team"));
+        assertEquals(0, trigram.getEdgeWeight(List.of("so", "the"), "team"));
+    }
+
+    @Test
+    void testSecondOrderBridgeWords() {
+        // "the scientist" -> carefully -> analyzed，"the scientist" -> analyzed -> it
+        assertEquals(List.of("carefully"), trigram.getBridgeWords(List.of("the", "scientist"), "analyzed"));
+        assertTrue(trigram.getBridgeWords(List.of("the", "scientist"), "again").isEmpty());
+    }
+
+    @Test
+    void testUnknownContext() {
+        assertTrue(trigram.nextWords(List.of("hello", "world")).isEmpty());
+        assertTrue(trigram.nextWords(List.of("the")).isEmpty());
+    }
+
+    @Test
+    void testRandomWalkFollowsTransitions() {
+        List<String> walk = trigram.randomWalk(new Random(7));
+        for (int i = 2; i < walk.size(); i++) {
+            assertTrue(trigram.getEdgeWeight(walk.subList(i - 2, i), walk.get(i)) > 0);
+        }
+    }
+
+    @Test
+    void testHashedContextsForHighOrder() {
+        NGramWordGraph high = new NGramWordGraph(4);
+        high.buildGraph(words);
+        assertEquals(List.of("it"), high.nextWords(List.of("so", "the", "scientist", "analyzed")));
+        assertEquals(words.size() - 3, high.nodeCount());
+    }
+}
@@ -0,0 +1,292 @@
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * 堆外边存储：(起点编号, 终点编号) -> 次数 的开放寻址哈希表，键和值都在直接内存中
+ * 槽表按哈希的高位分成 64 段，每段是独立的直接缓冲区并各自扩容，容量不受单个缓冲区 2GB 的限制；
+ * 每段最多 2^26 个槽，装载因子 0.5 时总共可容纳约 21 亿条不同的边（边数受 int 限制）
+ * 建图结束后调用 freeze() 按起点整理成堆外的 CSR 数组（offsets/targets/weights），每个起点的边按次数从大到小排列；
+ * targets 和 weights 按 2^28 个 int 分块存放。冻结后不能再添加边，遍历后继只读 CSR，可以被多个线程同时调用
+ */
+public class OffHeapEdgeStore {
+    // 每个槽：键+1（long，0 表示空槽）+ 次数（int）+ 填充
+    private static final int SLOT_SIZE = 16;
+    private static final int SEGMENT_BITS = 6;
+    private static final int SEGMENTS = 1 << SEGMENT_BITS;
+    private static final int MAX_SEGMENT_SLOTS = 1 << 26;
+    private static final int CSR_CHUNK_INTS = 1 << 28;
+
+    private final int maxSegmentSlots;
+    private final int chunkShift;
+    private final int chunkMask;
+    private final ByteBuffer[] segments = new ByteBuffer[SEGMENTS];
+    private final int[] masks = new int[SEGMENTS];
+    private final int[] segmentSizes = new int[SEGMENTS];
+    private int size;
+
+    private ByteBuffer csrOffsets;
+    private ByteBuffer[] csrTargets;
+    private ByteBuffer[] csrWeights;
+    private int csrNodes;
+    private volatile boolean frozen;
+
+    //遍历后继的回调
+    public interface EdgeVisitor {
+        void visit(int target, int weight);
+    }
+
+    public OffHeapEdgeStore(int expectedEdges) {
+        this(expectedEdges, MAX_SEGMENT_SLOTS, CSR_CHUNK_INTS);
+    }
+
+    // maxSegmentSlots 和 csrChunkInts 须为 2 的幂，测试中用较小的值覆盖分段和分块的边界
+    OffHeapEdgeStore(int expectedEdges, int maxSegmentSlots, int csrChunkInts) {
+        this.maxSegmentSlots = maxSegmentSlots;
+        this.chunkShift = Integer.numberOfTrailingZeros(csrChunkInts);
+        this.chunkMask = csrChunkInts - 1;
+        int perSegment = Math.max(16, expectedEdges / SEGMENTS * 2);
+        int capacity = Math.min(maxSegmentSlots, Integer.highestOneBit(perSegment - 1) << 1);
+        for (int s = 0; s < SEGMENTS; s++) {
+            segments[s] = OffHeapWordDictionary.allocate((long) capacity * SLOT_SIZE);
+            masks[s] = capacity - 1;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void add(int source, int target, int delta) {
+        if (frozen) {
+            throw new IllegalStateException("Edge store is frozen");
+        }
+        long key = key(source, target);
+        long hash = LongIntHashMap.mix(key);
+        int segment = segmentOf(hash);
+        ByteBuffer slots = segments[segment];
+        int mask = masks[segment];
+        int slot = (int) hash & mask;
+        while (true) {
+            long stored = slots.getLong(slot * SLOT_SIZE);
+            if (stored == 0) {
+                if (size == Integer.MAX_VALUE) {
+                    throw new IllegalStateException("Too many edges: " + size);
+                }
+                slots.putLong(slot * SLOT_SIZE, key);
+                slots.putInt(slot * SLOT_SIZE + 8, delta);
+                size++;
+                if (++segmentSizes[segment] * 2L > mask + 1L) {
+                    rehash(segment);
+                }
+                return;
+            }
+            if (stored == key) {
+                int pos = slot * SLOT_SIZE + 8;
+                slots.putInt(pos, slots.getInt(pos) + delta);
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    public int weight(int source, int target) {
+        long key = key(source, target);
+        long hash = LongIntHashMap.mix(key);
+        int segment = segmentOf(hash);
+        ByteBuffer slots = segments[segment];
+        int mask = masks[segment];
+        int slot = (int) hash & mask;
+        while (true) {
+            long stored = slots.getLong(slot * SLOT_SIZE);
+            if (stored == 0) {
+                return 0;
+            }
+            if (stored == key) {
+                return slots.getInt(slot * SLOT_SIZE + 8);
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    // 整理 CSR 并禁止后续修改；nodeCount 为节点总数，重复调用不会重新整理
+    public synchronized void freeze(int nodeCount) {
+        if (!frozen) {
+            buildCsr(nodeCount);
+            frozen = true;
+        }
+    }
+
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    // 按次数从大到小遍历 source 的后继，必须先调用 freeze()
+    public void forEachSuccessor(int source, EdgeVisitor visitor) {
+        if (!frozen) {
+            throw new IllegalStateException("Call freeze() before traversing successors");
+        }
+        if (source < 0 || source >= csrNodes) {
+            return;
+        }
+        int end = successorEnd(source);
+        for (int e = successorStart(source); e < end; e++) {
+            visitor.visit(successorTarget(e), getInt(csrWeights, e));
+        }
+    }
+
+    // 冻结后按下标访问 CSR：source 的后继为 [successorStart(source), successorEnd(source))
+    int successorStart(int source) {
+        return csrOffsets.getInt(source * Integer.BYTES);
+    }
+
+    int successorEnd(int source) {
+        return csrOffsets.getInt((source + 1) * Integer.BYTES);
+    }
+
+    int successorTarget(int edge) {
+        return getInt(csrTargets, edge);
+    }
+
+    // 占用的直接内存字节数
+    public long offHeapBytes() {
+        long total = 0;
+        for (ByteBuffer segment : segments) {
+            total += segment.capacity();
+        }
+        if (csrOffsets != null) {
+            total += csrOffsets.capacity();
+            for (int c = 0; c < csrTargets.length; c++) {
+                total += csrTargets[c].capacity() + csrWeights[c].capacity();
+            }
+        }
+        return total;
+    }
+
+    private void buildCsr(int nodeCount) {
+        ByteBuffer offsets = OffHeapWordDictionary.allocate((long) (nodeCount + 1) * Integer.BYTES);
+        ByteBuffer[] targets = allocateInts(size);
+        ByteBuffer[] weights = allocateInts(size);
+        // 先统计出度，再求前缀和
+        for (ByteBuffer slots : segments) {
+            for (int slot = 0; slot < slots.capacity() / SLOT_SIZE; slot++) {
+                long stored = slots.getLong(slot * SLOT_SIZE);
+                if (stored != 0) {
+                    int pos = (sourceOf(stored) + 1) * Integer.BYTES;
+                    offsets.putInt(pos, offsets.getInt(pos) + 1);
+                }
+            }
+        }
+        for (int v = 0; v < nodeCount; v++) {
+            int pos = (v + 1) * Integer.BYTES;
+            offsets.putInt(pos, offsets.getInt(pos) + offsets.getInt(v * Integer.BYTES));
+        }
+        // 每个起点当前的写入位置
+        ByteBuffer cursor = OffHeapWordDictionary.allocate((long) Math.max(1, nodeCount) * Integer.BYTES);
+        for (int v = 0; v < nodeCount; v++) {
+            cursor.putInt(v * Integer.BYTES, offsets.getInt(v * Integer.BYTES));
+        }
+        for (ByteBuffer slots : segments) {
+            for (int slot = 0; slot < slots.capacity() / SLOT_SIZE; slot++) {
+                long stored = slots.getLong(slot * SLOT_SIZE);
+                if (stored != 0) {
+                    int source = sourceOf(stored);
+                    int pos = cursor.getInt(source * Integer.BYTES);
+                    cursor.putInt(source * Integer.BYTES, pos + 1);
+                    putInt(targets, pos, targetOf(stored));
+                    putInt(weights, pos, slots.getInt(slot * SLOT_SIZE + 8));
+                }
+            }
+        }
+        csrTargets = targets;
+        csrWeights = weights;
+        sortByWeight(offsets, nodeCount);
+        csrOffsets = offsets;
+        csrNodes = nodeCount;
+    }
+
+    // 每个起点的边按次数降序、次数相同时按终点编号升序排列，与 GraphSnapshot 一致
+    private void sortByWeight(ByteBuffer offsets, int nodeCount) {
+        long[] buffer = new long[16];
+        for (int v = 0; v < nodeCount; v++) {
+            int from = offsets.getInt(v * Integer.BYTES);
+            int length = offsets.getInt((v + 1) * Integer.BYTES) - from;
+            if (length < 2) {
+                continue;
+            }
+            if (buffer.length < length) {
+                buffer = new long[Math.max(length, buffer.length * 2)];
+            }
+            for (int i = 0; i < length; i++) {
+                buffer[i] = ((long) (Integer.MAX_VALUE - getInt(csrWeights, from + i)) << 32) | getInt(csrTargets, from + i);
+            }
+            Arrays.sort(buffer, 0, length);
+            for (int i = 0; i < length; i++) {
+                putInt(csrTargets, from + i, (int) buffer[i]);
+                putInt(csrWeights, from + i, Integer.MAX_VALUE - (int) (buffer[i] >>> 32));
+            }
+        }
+    }
+
+    private void rehash(int segment) {
+        ByteBuffer slots = segments[segment];
+        int mask = masks[segment];
+        int capacity = (mask + 1) * 2;
+        if (capacity > maxSegmentSlots) {
+            throw new IllegalStateException("Edge store segment full: " + segmentSizes[segment] + " edges");
+        }
+        ByteBuffer newSlots = OffHeapWordDictionary.allocate((long) capacity * SLOT_SIZE);
+        int newMask = capacity - 1;
+        for (int slot = 0; slot <= mask; slot++) {
+            long stored = slots.getLong(slot * SLOT_SIZE);
+            if (stored == 0) {
+                continue;
+            }
+            int target = (int) LongIntHashMap.mix(stored) & newMask;
+            while (newSlots.getLong(target * SLOT_SIZE) != 0) {
+                target = (target + 1) & newMask;
+            }
+            newSlots.putLong(target * SLOT_SIZE, stored);
+            newSlots.putInt(target * SLOT_SIZE + 8, slots.getInt(slot * SLOT_SIZE + 8));
+        }
+        segments[segment] = newSlots;
+        masks[segment] = newMask;
+    }
+
+    // 按块分配 count 个 int
+    private ByteBuffer[] allocateInts(int count) {
+        int chunkInts = chunkMask + 1;
+        int chunkCount = Math.max(1, (int) (((long) count + chunkInts - 1) >>> chunkShift));
+        ByteBuffer[] chunks = new ByteBuffer[chunkCount];
+        for (int c = 0; c < chunkCount; c++) {
+            long ints = Math.min(chunkInts, Math.max(1, count - ((long) c << chunkShift)));
+            chunks[c] = OffHeapWordDictionary.allocate(ints * Integer.BYTES);
+        }
+        return chunks;
+    }
+
+    private int getInt(ByteBuffer[] chunks, int index) {
+        return chunks[index >>> chunkShift].getInt((index & chunkMask) * Integer.BYTES);
+    }
+
+    private void putInt(ByteBuffer[] chunks, int index, int value) {
+        chunks[index >>> chunkShift].putInt((index & chunkMask) * Integer.BYTES, value);
+    }
+
+    // 哈希的最高几位选择分段，低位在段内定位槽，两者互不相关
+    private static int segmentOf(long hash) {
+        return (int) (hash >>> (64 - SEGMENT_BITS));
+    }
+
+    // 键为 (起点 << 32 | 终点) + 1，保证不为 0
+    private static long key(int source, int target) {
+        return (((long) source << 32) | (target & 0xffffffffL)) + 1;
+    }
+
+    private static int sourceOf(long key) {
+        return (int) ((key - 1) >>> 32);
+    }
+
+    private static int targetOf(long key) {
+        return (int) (key - 1);
+    }
+}
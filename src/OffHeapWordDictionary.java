@@ -0,0 +1,185 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 堆外单词字典：单词以 UTF-8 字节存放在直接内存的分块区域（arena）中，
+ * 字节 -> 编号 的开放寻址哈希表和每个编号的元数据也都在直接内存中
+ * 查找和插入直接使用调用方的字节片段，不创建 String；堆上只有少量 ByteBuffer 对象，
+ * 千万级词表也不会增加 GC 的扫描负担
+ * 哈希表和元数据各是一个直接缓冲区（单个不超过 2GB），最多约 1.3 亿个不同单词
+ * 直接内存总量受 -XX:MaxDirectMemorySize 限制
+ */
+public class OffHeapWordDictionary {
+    private static final int DEFAULT_CHUNK_SIZE = 1 << 24;
+    // 每个编号的元数据：单词位置（long）+ 长度（int）+ 哈希（int）
+    private static final int RECORD_SIZE = 16;
+
+    private final int chunkSize;
+    private final List<ByteBuffer> chunks = new ArrayList<>();
+    private ByteBuffer current;
+    private ByteBuffer records;
+    // 槽中存放 编号+1，0 表示空槽
+    private ByteBuffer table;
+    private int mask;
+    private int size;
+
+    public OffHeapWordDictionary() {
+        this(DEFAULT_CHUNK_SIZE, 1024);
+    }
+
+    public OffHeapWordDictionary(int chunkSize, int expectedWords) {
+        this.chunkSize = chunkSize;
+        int capacity = Integer.highestOneBit(Math.max(16, expectedWords * 2) - 1) << 1;
+        table = allocate((long) capacity * Integer.BYTES);
+        mask = capacity - 1;
+        records = allocate((long) Math.max(16, expectedWords) * RECORD_SIZE);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // 不存在时返回 -1
+    public int find(byte[] bytes, int offset, int length) {
+        int hash = hash(bytes, offset, length);
+        int slot = hash & mask;
+        while (true) {
+            int entry = table.getInt(slot * Integer.BYTES);
+            if (entry == 0) {
+                return -1;
+            }
+            if (matches(entry - 1, hash, bytes, offset, length)) {
+                return entry - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    public int find(String word) {
+        byte[] bytes = word.getBytes(StandardCharsets.UTF_8);
+        return find(bytes, 0, bytes.length);
+    }
+
+    // 返回单词的编号，不存在时分配新编号（从 0 开始连续分配）
+    public int getOrAdd(byte[] bytes, int offset, int length) {
+        int hash = hash(bytes, offset, length);
+        int slot = hash & mask;
+        while (true) {
+            int entry = table.getInt(slot * Integer.BYTES);
+            if (entry == 0) {
+                break;
+            }
+            if (matches(entry - 1, hash, bytes, offset, length)) {
+                return entry - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        int id = size++;
+        long ref = store(bytes, offset, length);
+        if ((long) size * RECORD_SIZE > records.capacity()) {
+            records = grow(records, (long) records.capacity() * 2);
+        }
+        int base = id * RECORD_SIZE;
+        records.putLong(base, ref);
+        records.putInt(base + 8, length);
+        records.putInt(base + 12, hash);
+        table.putInt(slot * Integer.BYTES, id + 1);
+        if (size * 2L > mask + 1L) {
+            rehash();
+        }
+        return id;
+    }
+
+    public int getOrAdd(String word) {
+        byte[] bytes = word.getBytes(StandardCharsets.UTF_8);
+        return getOrAdd(bytes, 0, bytes.length);
+    }
+
+    // 编号对应的单词（会创建 String，只用于输出结果）
+    public String word(int id) {
+        int base = id * RECORD_SIZE;
+        long ref = records.getLong(base);
+        int length = records.getInt(base + 8);
+        byte[] bytes = new byte[length];
+        chunks.get((int) (ref >>> 32)).get((int) ref, bytes, 0, length);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // 占用的直接内存字节数
+    public long offHeapBytes() {
+        long total = (long) table.capacity() + records.capacity();
+        for (ByteBuffer chunk : chunks) {
+            total += chunk.capacity();
+        }
+        return total;
+    }
+
+    private boolean matches(int id, int hash, byte[] bytes, int offset, int length) {
+        int base = id * RECORD_SIZE;
+        if (records.getInt(base + 12) != hash || records.getInt(base + 8) != length) {
+            return false;
+        }
+        long ref = records.getLong(base);
+        ByteBuffer chunk = chunks.get((int) (ref >>> 32));
+        int position = (int) ref;
+        for (int i = 0; i < length; i++) {
+            if (chunk.get(position + i) != bytes[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // 追加到当前分块，放不下时开新分块；返回 (分块号 << 32 | 分块内位置)
+    private long store(byte[] bytes, int offset, int length) {
+        if (current == null || current.remaining() < length) {
+            current = allocate(Math.max(chunkSize, length));
+            chunks.add(current);
+        }
+        int position = current.position();
+        current.put(bytes, offset, length);
+        return ((long) (chunks.size() - 1) << 32) | position;
+    }
+
+    private void rehash() {
+        int capacity = (mask + 1) * 2;
+        ByteBuffer newTable = allocate((long) capacity * Integer.BYTES);
+        int newMask = capacity - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = records.getInt(id * RECORD_SIZE + 12) & newMask;
+            while (newTable.getInt(slot * Integer.BYTES) != 0) {
+                slot = (slot + 1) & newMask;
+            }
+            newTable.putInt(slot * Integer.BYTES, id + 1);
+        }
+        table = newTable;
+        mask = newMask;
+    }
+
+    static ByteBuffer allocate(long bytes) {
+        if (bytes > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Off-heap buffer too large: " + bytes);
+        }
+        return ByteBuffer.allocateDirect((int) bytes).order(ByteOrder.nativeOrder());
+    }
+
+    static ByteBuffer grow(ByteBuffer old, long bytes) {
+        ByteBuffer grown = allocate(bytes);
+        ByteBuffer source = old.duplicate();
+        source.clear();
+        grown.put(source);
+        grown.clear();
+        return grown;
+    }
+
+    private static int hash(byte[] bytes, int offset, int length) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < length; i++) {
+            h = (h ^ bytes[offset + i]) * 0x100000001b3L;
+        }
+        return (int) LongIntHashMap.mix(h);
+    }
+}
@@ -0,0 +1,294 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * 堆外存储的单词图，用于词表非常大的语料
+ * 单词和边分别存放在 OffHeapWordDictionary 和 OffHeapEdgeStore 中；
+ * 作为 TokenSink 接收分词器输出的字符片段，编码为 UTF-8 后直接查找编号，建图过程中不创建 String
+ * 建图结束后调用 freeze() 整理后继的 CSR，之后只读，可供多个线程同时查询；
+ * 批处理和查询服务的 --off-heap 选项使用该后端，支持 bridge、next 和 path 查询
+ */
+public class OffHeapWordGraph implements TokenSink {
+    private final OffHeapWordDictionary dictionary;
+    private final OffHeapEdgeStore edges;
+    private byte[] scratch = new byte[64];
+    private int previous = -1;
+    // 最短路径查询的临时数组，查询结束后归还复用，避免每次查询在堆上分配 O(n) 的数组
+    private final Queue<PathScratch> scratchPool = new ConcurrentLinkedQueue<>();
+
+    public OffHeapWordGraph() {
+        this(1024, 4096);
+    }
+
+    public OffHeapWordGraph(int expectedWords, int expectedEdges) {
+        dictionary = new OffHeapWordDictionary(1 << 24, expectedWords);
+        edges = new OffHeapEdgeStore(expectedEdges);
+    }
+
+    // 对一段文本建图，与 WordGraph.buildGraph 一样，不同文本之间不连边
+    public void buildGraph(CharSequence text, TextProcessor processor) {
+        if (edges.isFrozen()) {
+            throw new IllegalStateException("Graph is frozen");
+        }
+        previous = -1;
+        processor.process(text, this);
+        previous = -1;
+    }
+
+    @Override
+    public void accept(char[] buffer, int length) {
+        int byteLength = encodeUtf8(buffer, length);
+        int id = dictionary.getOrAdd(scratch, 0, byteLength);
+        if (previous >= 0) {
+            edges.add(previous, id, 1);
+        }
+        previous = id;
+    }
+
+    // 建图结束：整理 CSR，之后不能再调用 buildGraph
+    public void freeze() {
+        edges.freeze(nodeCount());
+    }
+
+    public int nodeCount() {
+        return dictionary.size();
+    }
+
+    public int edgeCount() {
+        return edges.size();
+    }
+
+    public int getEdgeWeight(String source, String target) {
+        int s = dictionary.find(source);
+        int t = dictionary.find(target);
+        return s < 0 || t < 0 ? 0 : edges.weight(s, t);
+    }
+
+    public List<String> getBridgeWords(String word1, String word2) {
+        List<String> bridgeWords = new ArrayList<>();
+        int s = dictionary.find(word1);
+        int t = dictionary.find(word2);
+        if (s < 0 || t < 0) {
+            return bridgeWords;
+        }
+        edges.forEachSuccessor(s, (bridge, weight) -> {
+            if (edges.weight(bridge, t) > 0) {
+                bridgeWords.add(dictionary.word(bridge));
+            }
+        });
+        return bridgeWords;
+    }
+
+    // 输出文本与 WordGraph.queryBridgeWords 相同
+    public String queryBridgeWords(String word1, String word2) {
+        boolean has1 = dictionary.find(word1) >= 0;
+        boolean has2 = dictionary.find(word2) >= 0;
+        if (!has1 || !has2) {
+            return "No " + (has1 ? "word2" : (has2 ? "word1" : "word1 or word2")) + " in the graph!";
+        }
+        return WordGraph.bridgeWordsMessage(word1, word2, getBridgeWords(word1, word2));
+    }
+
+    // 最常跟在 word 之后的 k 个词及次数，按次数从大到小
+    public List<WeightedEdge> topNextWords(String word, int k) {
+        List<WeightedEdge> result = new ArrayList<>();
+        forEachSuccessor(word, (target, weight) -> {
+            if (result.size() < k) {
+                result.add(new WeightedEdge(word, dictionary.word(target), weight));
+            }
+        });
+        return result;
+    }
+
+    // 遍历 word 的所有后继及次数，按次数从大到小
+    public void forEachSuccessor(String word, OffHeapEdgeStore.EdgeVisitor visitor) {
+        int s = dictionary.find(word);
+        if (s >= 0) {
+            edges.forEachSuccessor(s, visitor);
+        }
+    }
+
+    /**
+     * 与 WordGraph.findShortestPaths 的语义相同：end 为 null 时返回到所有其他单词的最短路径，不可达的单词对应空列表
+     * BFS 使用 int 数组记录距离和前驱链表，不创建 String；这些数组在查询之间复用
+     */
+    public Map<String, List<List<String>>> findShortestPaths(String start, String end) {
+        if (start == null || start.isEmpty()) {
+            throw new IllegalArgumentException("Invalid start word.");
+        }
+        int source = dictionary.find(start);
+        if (source < 0) {
+            throw new IllegalArgumentException("Start word '" + start + "' not found in graph.");
+        }
+        int target = end == null ? -1 : dictionary.find(end);
+        if (end != null && target < 0) {
+            throw new IllegalArgumentException("End word '" + end + "' not found in graph.");
+        }
+        if (!edges.isFrozen()) {
+            throw new IllegalStateException("Call freeze() before traversing successors");
+        }
+        int n = nodeCount();
+        PathScratch scratch = takeScratch(n);
+        int[] dist = scratch.dist;
+        int[] predHead = scratch.predHead;
+        int[] queue = scratch.queue;
+        int predCount = 0;
+        int head = 0;
+        int tail = 0;
+        dist[source] = 0;
+        queue[tail++] = source;
+        boolean found = false;
+        while (head < tail && !found) {
+            int levelEnd = tail;
+            while (head < levelEnd) {
+                int u = queue[head++];
+                found |= u == target;
+                for (int e = edges.successorStart(u); e < edges.successorEnd(u); e++) {
+                    int v = edges.successorTarget(e);
+                    if (dist[v] < 0) {
+                        dist[v] = dist[u] + 1;
+                        queue[tail++] = v;
+                    }
+                    if (dist[v] == dist[u] + 1) {
+                        scratch.ensurePredCapacity(predCount + 1);
+                        scratch.predNode[predCount] = u;
+                        scratch.predNext[predCount] = predHead[v];
+                        predHead[v] = predCount++;
+                    }
+                }
+            }
+        }
+        scratch.visited = tail;
+        Map<String, List<List<String>>> result = new LinkedHashMap<>();
+        for (int v = 0; v < n; v++) {
+            if (end != null ? v != target : v == source) {
+                continue;
+            }
+            result.put(dictionary.word(v), dist[v] < 0
+                    ? Collections.emptyList()
+                    : getAllPaths(source, v, dist[v], predHead, scratch.predNode, scratch.predNext));
+        }
+        // 查询中途抛出异常时这份数组不再归还，由 GC 回收
+        releaseScratch(scratch);
+        return result;
+    }
+
+    // 取一份大小合适的临时数组，没有空闲的时才分配
+    private PathScratch takeScratch(int n) {
+        PathScratch scratch = scratchPool.poll();
+        return scratch != null && scratch.dist.length == n ? scratch : new PathScratch(n);
+    }
+
+    // 只重置本次访问过的节点，代价与访问的节点数成正比
+    private void releaseScratch(PathScratch scratch) {
+        for (int i = 0; i < scratch.visited; i++) {
+            int v = scratch.queue[i];
+            scratch.dist[v] = -1;
+            scratch.predHead[v] = -1;
+        }
+        scratch.visited = 0;
+        scratchPool.offer(scratch);
+    }
+
+    // 沿前驱链表从 end 回溯到 start，使用显式栈，长链上不会栈溢出
+    private List<List<String>> getAllPaths(int start, int end, int depth, int[] predHead, int[] predNode, int[] predNext) {
+        List<List<String>> paths = new ArrayList<>();
+        // path[i] 为第 i 层的节点（end 为第 0 层），cursor[i] 为其下一个待展开的前驱链表项
+        int[] path = new int[depth + 1];
+        int[] cursor = new int[depth + 1];
+        path[0] = end;
+        cursor[0] = predHead[end];
+        int level = 0;
+        while (level >= 0) {
+            int v = path[level];
+            if (v == start) {
+                List<String> words = new ArrayList<>(level + 1);
+                for (int i = level; i >= 0; i--) {
+                    words.add(dictionary.word(path[i]));
+                }
+                paths.add(words);
+                level--;
+                continue;
+            }
+            int p = cursor[level];
+            if (p >= 0) {
+                cursor[level] = predNext[p];
+                path[level + 1] = predNode[p];
+                cursor[level + 1] = predHead[predNode[p]];
+                level++;
+            } else {
+                level--;
+            }
+        }
+        return paths;
+    }
+
+    public String word(int id) {
+        return dictionary.word(id);
+    }
+
+    // 占用的直接内存字节数
+    public long offHeapBytes() {
+        return dictionary.offHeapBytes() + edges.offHeapBytes();
+    }
+
+    // 一次 BFS 使用的数组：距离（-1 表示未访问）、队列和以链表存放的前驱
+    // predHead[v] 为第一项在 predNode/predNext 中的下标，-1 表示结束
+    private static final class PathScratch {
+        final int[] dist;
+        final int[] predHead;
+        final int[] queue;
+        int[] predNode = new int[16];
+        int[] predNext = new int[16];
+        int visited;
+
+        PathScratch(int n) {
+            dist = new int[n];
+            predHead = new int[n];
+            queue = new int[n];
+            Arrays.fill(dist, -1);
+            Arrays.fill(predHead, -1);
+        }
+
+        void ensurePredCapacity(int capacity) {
+            if (capacity > predNode.length) {
+                predNode = Arrays.copyOf(predNode, Math.max(capacity, predNode.length * 2));
+                predNext = Arrays.copyOf(predNext, predNode.length);
+            }
+        }
+    }
+
+    // 把 buffer 中的 UTF-16 字符编码为 UTF-8 写入 scratch，返回字节数
+    private int encodeUtf8(char[] buffer, int length) {
+        if (scratch.length < length * 3) {
+            scratch = new byte[length * 3];
+        }
+        int pos = 0;
+        for (int i = 0; i < length; i++) {
+            char c = buffer[i];
+            if (c < 0x80) {
+                scratch[pos++] = (byte) c;
+            } else if (c < 0x800) {
+                scratch[pos++] = (byte) (0xc0 | (c >> 6));
+                scratch[pos++] = (byte) (0x80 | (c & 0x3f));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(buffer[i + 1])) {
+                int cp = Character.toCodePoint(c, buffer[++i]);
+                scratch[pos++] = (byte) (0xf0 | (cp >> 18));
+                scratch[pos++] = (byte) (0x80 | ((cp >> 12) & 0x3f));
+                scratch[pos++] = (byte) (0x80 | ((cp >> 6) & 0x3f));
+                scratch[pos++] = (byte) (0x80 | (cp & 0x3f));
+            } else {
+                scratch[pos++] = (byte) (0xe0 | (c >> 12));
+                scratch[pos++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+                scratch[pos++] = (byte) (0x80 | (c & 0x3f));
+            }
+        }
+        return pos;
+    }
+}
@@ -0,0 +1,193 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapWordGraphTest {
+
+    private static final String TEXT = "The scientist carefully analyzed the data, wrote a detailed report, "
+            + "and shared the report with the team, but the team requested more data, "
+            + "so the scientist analyzed it again.";
+
+    @Test
+    void testMatchesWordGraph() {
+        TextProcessor processor = new TextProcessor();
+        WordGraph graph = new WordGraph();
+        graph.buildGraph(processor.processText(TEXT));
+        // 初始容量很小，强制触发哈希表扩容
+        OffHeapWordGraph offHeap = new OffHeapWordGraph(2, 2);
+        offHeap.buildGraph(TEXT, processor);
+        offHeap.freeze();
+
+        assertEquals(graph.nodeCount(), offHeap.nodeCount());
+        GraphSnapshot snapshot = graph.snapshot();
+        assertEquals(snapshot.edgeCount(), offHeap.edgeCount());
+        for (int v = 0; v < snapshot.nodeCount(); v++) {
+            for (int e = snapshot.outStart(v); e < snapshot.outEnd(v); e++) {
+                assertEquals(snapshot.outWeight(e),
+                        offHeap.getEdgeWeight(snapshot.word(v), snapshot.word(snapshot.outTarget(e))));
+            }
+        }
+        assertEquals(new HashSet<>(graph.getBridgeWords("the", "so")),
+                new HashSet<>(offHeap.getBridgeWords("the", "so")));
+    }
+
+    @Test
+    void testNonAsciiWords() {
+        OffHeapWordGraph offHeap = new OffHeapWordGraph();
+        offHeap.buildGraph("我爱北京 café 𠀀", new TextProcessor(new UnicodeTokenizer()));
+        offHeap.freeze();
+        assertEquals(6, offHeap.nodeCount());
+        assertEquals(1, offHeap.getEdgeWeight("京", "café"));
+        assertEquals(1, offHeap.getEdgeWeight("café", "𠀀"));
+        assertEquals(List.of("爱"), offHeap.getBridgeWords("我", "北"));
+    }
+
+    @Test
+    void testDictionaryIdsAreStable() {
+        OffHeapWordDictionary dictionary = new OffHeapWordDictionary(64, 1);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, dictionary.getOrAdd("word" + i));
+        }
+        assertEquals(500, dictionary.find("word500"));
+        assertEquals(-1, dictionary.find("missing"));
+        assertEquals("word999", dictionary.word(999));
+    }
+
+    @Test
+    void testQueriesMatchWordGraph() {
+        TextProcessor processor = new TextProcessor();
+        WordGraph graph = new WordGraph();
+        graph.buildGraph(processor.processText(TEXT));
+        OffHeapWordGraph offHeap = new OffHeapWordGraph();
+        offHeap.buildGraph(TEXT, processor);
+        offHeap.freeze();
+
+        // the 之后 scientist 和 team 都出现两次，同权重时的顺序取决于各自的编号
+        assertEquals(new HashSet<>(graph.topNextWords("the", 2)), new HashSet<>(offHeap.topNextWords("the", 2)));
+        assertEquals(graph.queryBridgeWords("analyzed", "again"), offHeap.queryBridgeWords("analyzed", "again"));
+        assertEquals("No word2 in the graph!", offHeap.queryBridgeWords("the", "missing"));
+        for (String start : Arrays.asList("the", "so", "again")) {
+            Map<String, List<List<String>>> expected = graph.findShortestPaths(start, null);
+            Map<String, List<List<String>>> actual = offHeap.findShortestPaths(start, null);
+            assertEquals(expected.keySet(), actual.keySet());
+            for (String target : expected.keySet()) {
+                assertEquals(new HashSet<>(expected.get(target)), new HashSet<>(actual.get(target)));
+            }
+        }
+        assertEquals(graph.findShortestPaths("so", "report").get("report").size(),
+                offHeap.findShortestPaths("so", "report").get("report").size());
+        assertThrows(IllegalArgumentException.class, () -> offHeap.findShortestPaths("missing", null));
+    }
+
+    @Test
+    void testFreezeRequiredAndFinal() {
+        OffHeapWordGraph offHeap = new OffHeapWordGraph();
+        offHeap.buildGraph("a b c", new TextProcessor());
+        assertThrows(IllegalStateException.class, () -> offHeap.getBridgeWords("a", "c"));
+        offHeap.freeze();
+        assertEquals(List.of("b"), offHeap.getBridgeWords("a", "c"));
+        assertThrows(IllegalStateException.class, () -> offHeap.buildGraph("c d", new TextProcessor()));
+    }
+
+    @Test
+    void testConcurrentReadersAfterFreeze() {
+        OffHeapWordGraph offHeap = new OffHeapWordGraph();
+        offHeap.buildGraph(TEXT, new TextProcessor());
+        offHeap.freeze();
+        List<String> expected = offHeap.getBridgeWords("the", "so");
+        assertTrue(IntStream.range(0, 2000).parallel()
+                .allMatch(i -> offHeap.getBridgeWords("the", "so").equals(expected)));
+    }
+
+    @Test
+    void testBatchOffHeapBackend() throws Exception {
+        List<String> queries = Arrays.asList("bridge analyzed again", "next the 1", "path so data", "pagerank");
+        List<String> output = GraphFixtures.runBatch(TEXT, queries, "--off-heap", "--threads", "2");
+        assertTrue(output.get(0).contains("\"message\":\"The bridge word from analyzed to again is: it.\""));
+        assertTrue(output.get(1).contains("{\"source\":\"the\",\"target\":"));
+        assertTrue(output.get(2).contains("\"paths\":{\"data\":[[\"so\",\"the\",\"data\"]]}"));
+        assertTrue(output.get(3).contains("\"error\":\"Command 'pagerank' is not supported by the off-heap backend\""));
+        assertThrows(IllegalArgumentException.class,
+                () -> GraphFixtures.runBatch(TEXT, queries, "--off-heap", "--order", "2"));
+    }
+
+    @Test
+    void testDeepChainPathsDoNotOverflowStack() throws Exception {
+        List<String> words = GraphFixtures.chain(30_000);
+        OffHeapWordGraph offHeap = new OffHeapWordGraph();
+        offHeap.buildGraph(String.join(" ", words), new TextProcessor());
+        offHeap.freeze();
+        List<List<String>> single = offHeap.findShortestPaths(words.get(0), words.get(29_999)).get(words.get(29_999));
+        assertEquals(List.of(words), single);
+
+        List<String> shorter = GraphFixtures.chain(4_000);
+        OffHeapWordGraph shortGraph = new OffHeapWordGraph();
+        shortGraph.buildGraph(String.join(" ", shorter), new TextProcessor());
+        shortGraph.freeze();
+        GraphFixtures.runWithSmallStack(() -> {
+            Map<String, List<List<String>>> all = shortGraph.findShortestPaths(shorter.get(0), null);
+            assertEquals(3_999, all.size());
+            assertEquals(List.of(shorter), all.get(shorter.get(3_999)));
+        });
+    }
+
+    @Test
+    void testEdgeStoreCapacityNotTiedToOneBuffer() {
+        // 每段最多 256 个槽（128 条边）、CSR 每块 16 个 int：单个缓冲区的容量远小于边数
+        OffHeapEdgeStore store = new OffHeapEdgeStore(1, 256, 16);
+        int nodes = 40;
+        for (int s = 0; s < nodes; s++) {
+            for (int t = 0; t < nodes; t++) {
+                store.add(s, t, s + t + 1);
+            }
+        }
+        assertEquals(nodes * nodes, store.size());
+        assertEquals(40, store.weight(3, 36));
+        store.freeze(nodes);
+        for (int s = 0; s < nodes; s++) {
+            List<Integer> targets = new ArrayList<>();
+            store.forEachSuccessor(s, (target, weight) -> targets.add(target));
+            // 次数为 s + t + 1，按次数降序即终点编号降序
+            List<Integer> expected = new ArrayList<>();
+            for (int t = nodes - 1; t >= 0; t--) {
+                expected.add(t);
+            }
+            assertEquals(expected, targets);
+        }
+        // 某一段达到上限时报错
+        OffHeapEdgeStore full = new OffHeapEdgeStore(1, 16, 16);
+        assertThrows(IllegalStateException.class, () -> {
+            for (int i = 0; i < 64 * 16; i++) {
+                full.add(i, i, 1);
+            }
+        });
+    }
+
+    @Test
+    void testRepeatedPathQueriesReuseScratch() {
+        TextProcessor processor = new TextProcessor();
+        WordGraph graph = new WordGraph();
+        graph.buildGraph(processor.processText(TEXT));
+        OffHeapWordGraph offHeap = new OffHeapWordGraph();
+        offHeap.buildGraph(TEXT, processor);
+        offHeap.freeze();
+        // 交替进行提前结束的单目标查询和全目标查询，复用的数组必须每次都被正确重置
+        for (int round = 0; round < 3; round++) {
+            assertEquals(graph.findShortestPaths("so", "report").get("report").size(),
+                    offHeap.findShortestPaths("so", "report").get("report").size());
+            Map<String, List<List<String>>> expected = graph.findShortestPaths("the", null);
+            Map<String, List<List<String>>> actual = offHeap.findShortestPaths("the", null);
+            assertEquals(expected.keySet(), actual.keySet());
+            for (String word : expected.keySet()) {
+                assertEquals(new HashSet<>(expected.get(word)), new HashSet<>(actual.get(word)));
+            }
+        }
+    }
+}
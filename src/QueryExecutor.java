@@ -0,0 +1,245 @@
+import java.util.*;
+
+/**
+ * 在已构建好的单词图上执行文本形式的查询命令，结果以 Map 形式返回便于序列化为JSON
+ * 支持的命令：
+ *   bridge word1 word2
+ *   expand text...
+ *   path start [end]
+ *   distance word...   到任一给定单词的最短距离（多源 BFS）
+ *   pagerank [d] [k]
+ *   walk [seed]
+ *   stats [reach]      reach 时附带平均可达节点数（首次计算代价较高）
+ *   next word [k]      最常跟在 word 之后的词
+ *   prev word [k]      最常出现在 word 之前的词
+ *   edges [k]          全图权重最大的边
+ * 命令中的单词经过与建图相同的 TextProcessor（分词、停用词、词干），与图中的节点一致
+ * 构建完成后图只读，因此同一个实例可以被多个线程同时调用
+ * 提供 k 阶图（NGramWordGraph）时，expand 和 walk 使用 k 阶图
+ * 使用堆外单词图（OffHeapWordGraph）时只支持 bridge、next 和 path，其他命令返回错误
+ */
+public class QueryExecutor {
+    private static final double DEFAULT_DAMPING = 0.85;
+
+    private final WordGraph graph;
+    private final TextProcessor processor;
+    private final NGramWordGraph nGramGraph;
+    private final OffHeapWordGraph offHeapGraph;
+    private static final int DEFAULT_K = 10;
+    // 最近使用的几个阻尼系数的PageRank结果（节点已按 rank 排序），数量有上限，避免调用方用不同的 d 占满内存
+    private static final int PAGE_RANK_CACHE_SIZE = 4;
+    private final Map<Double, PageRank> pageRankCache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Double, PageRank> eldest) {
+            return size() > PAGE_RANK_CACHE_SIZE;
+        }
+    };
+
+    public QueryExecutor(WordGraph graph, TextProcessor processor) {
+        this(graph, processor, null);
+    }
+
+    public QueryExecutor(WordGraph graph, TextProcessor processor, NGramWordGraph nGramGraph) {
+        this.graph = graph;
+        this.processor = processor;
+        this.nGramGraph = nGramGraph;
+        this.offHeapGraph = null;
+    }
+
+    // offHeapGraph 必须已经 freeze()
+    public QueryExecutor(OffHeapWordGraph offHeapGraph, TextProcessor processor) {
+        this.graph = null;
+        this.processor = processor;
+        this.nGramGraph = null;
+        this.offHeapGraph = offHeapGraph;
+    }
+
+    public int nodeCount() {
+        return offHeapGraph != null ? offHeapGraph.nodeCount() : graph.nodeCount();
+    }
+
+    public Map<String, Object> execute(String query) {
+        String trimmed = query.trim();
+        String[] parts = trimmed.split("\\s+");
+        String command = parts[0].toLowerCase();
+        switch (command) {
+            case "bridge":
+                requireArgs(parts, 3, "bridge word1 word2");
+                return bridge(normalize(parts[1]), normalize(parts[2]));
+            case "expand":
+                String text = trimmed.length() > command.length() ? trimmed.substring(command.length()).trim() : "";
+                return expand(text);
+            case "path":
+                requireArgs(parts, 2, "path start [end]");
+                return path(normalize(parts[1]), parts.length > 2 ? normalize(parts[2]) : null);
+            case "distance":
+                requireArgs(parts, 2, "distance word...");
+                List<String> sources = new ArrayList<>();
+                for (int i = 1; i < parts.length; i++) {
+                    sources.add(normalize(parts[i]));
+                }
+                return distances(sources);
+            case "pagerank":
+                double d = parts.length > 1 ? Double.parseDouble(parts[1]) : DEFAULT_DAMPING;
+                int k = parts.length > 2 ? Integer.parseInt(parts[2]) : Integer.MAX_VALUE;
+                return pageRank(d, k);
+            case "walk":
+                Random random = parts.length > 1 ? new Random(Long.parseLong(parts[1])) : new Random();
+                return walk(random);
+            case "stats":
+                return stats(parts.length > 1 && parts[1].equalsIgnoreCase("reach"));
+            case "next":
+                requireArgs(parts, 2, "next word [k]");
+                return nextWords(normalize(parts[1]), parts.length > 2 ? Integer.parseInt(parts[2]) : DEFAULT_K);
+            case "prev":
+                requireArgs(parts, 2, "prev word [k]");
+                return predecessors(normalize(parts[1]), parts.length > 2 ? Integer.parseInt(parts[2]) : DEFAULT_K);
+            case "edges":
+                return topEdges(parts.length > 1 ? Integer.parseInt(parts[1]) : DEFAULT_K);
+            default:
+                throw new IllegalArgumentException("Unknown command: " + parts[0]);
+        }
+    }
+
+    /**
+     * 将查询中的一个单词按建图时的流程规范化，每个参数必须恰好得到一个词
+     * 规范化后为空（如停用词）或被拆成多个词时抛出 IllegalArgumentException
+     */
+    public String normalize(String word) {
+        List<String> tokens = processor.processText(word);
+        if (tokens.isEmpty()) {
+            throw new IllegalArgumentException("Word '" + word + "' is empty or a stop word after normalization");
+        }
+        if (tokens.size() > 1) {
+            throw new IllegalArgumentException("Word '" + word + "' is not a single token: " + tokens);
+        }
+        return tokens.get(0);
+    }
+
+    public Map<String, Object> bridge(String word1, String word2) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        if (offHeapGraph != null) {
+            result.put("bridges", offHeapGraph.getBridgeWords(word1, word2));
+            result.put("message", offHeapGraph.queryBridgeWords(word1, word2));
+            return result;
+        }
+        result.put("bridges", graph.getBridgeWords(word1, word2));
+        result.put("message", graph.queryBridgeWords(word1, word2));
+        return result;
+    }
+
+    public Map<String, Object> expand(String text) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("text", nGramGraph != null
+                ? nGramGraph.generateNewTextWithBridges(text, processor)
+                : graph("expand").generateNewTextWithBridges(text, processor));
+        return result;
+    }
+
+    public Map<String, Object> path(String start, String end) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("paths", offHeapGraph != null
+                ? offHeapGraph.findShortestPaths(start, end)
+                : graph.findShortestPaths(start, end));
+        return result;
+    }
+
+    public Map<String, Object> distances(Collection<String> sources) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("distances", graph("distance").distancesFrom(sources));
+        return result;
+    }
+
+    public Map<String, Object> pageRank(double d, int k) {
+        if (!(d >= 0 && d <= 1)) {
+            throw new IllegalArgumentException("Damping factor must be between 0 and 1: " + d);
+        }
+        PageRank pageRank = cachedPageRank(d);
+        int[] order = pageRank.order();
+        int count = Math.min(k, order.length);
+        List<Map<String, Object>> ranks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("word", pageRank.word(order[i]));
+            item.put("rank", pageRank.rank(order[i]));
+            ranks.add(item);
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("ranks", ranks);
+        return result;
+    }
+
+    // 在锁外计算，并发的相同请求可能各算一次，结果相同
+    private PageRank cachedPageRank(double d) {
+        WordGraph wordGraph = graph("pagerank");
+        synchronized (pageRankCache) {
+            PageRank cached = pageRankCache.get(d);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        PageRank pageRank = PageRank.compute(wordGraph.snapshot(), d);
+        pageRank.order();
+        synchronized (pageRankCache) {
+            pageRankCache.put(d, pageRank);
+        }
+        return pageRank;
+    }
+
+    public Map<String, Object> walk(Random random) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("walk", nGramGraph != null ? nGramGraph.randomWalk(random) : graph("walk").randomWalk(random));
+        return result;
+    }
+
+    // 强连通分量、度分布等结构统计，分析结果随图的快照缓存
+    public Map<String, Object> stats(boolean includeReachability) {
+        return graph("stats").analytics().summary(includeReachability);
+    }
+
+    public Map<String, Object> nextWords(String word, int k) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("next", edgesToList(offHeapGraph != null
+                ? offHeapGraph.topNextWords(word, k)
+                : graph.topNextWords(word, k)));
+        return result;
+    }
+
+    public Map<String, Object> predecessors(String word, int k) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("prev", edgesToList(graph("prev").topPredecessors(word, k)));
+        return result;
+    }
+
+    public Map<String, Object> topEdges(int k) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("edges", edgesToList(graph("edges").topEdges(k)));
+        return result;
+    }
+
+    private static List<Map<String, Object>> edgesToList(List<WeightedEdge> edges) {
+        List<Map<String, Object>> list = new ArrayList<>();
+        for (WeightedEdge edge : edges) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("source", edge.getSource());
+            item.put("target", edge.getTarget());
+            item.put("weight", edge.getWeight());
+            list.add(item);
+        }
+        return list;
+    }
+
+    // 需要完整 WordGraph 的命令在堆外后端上不可用
+    private WordGraph graph(String command) {
+        if (graph == null) {
+            throw new IllegalStateException("Command '" + command + "' is not supported by the off-heap backend");
+        }
+        return graph;
+    }
+
+    private static void requireArgs(String[] parts, int count, String usage) {
+        if (parts.length < count) {
+            throw new IllegalArgumentException("Usage: " + usage);
+        }
+    }
+}
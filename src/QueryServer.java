@@ -0,0 +1,287 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 本地HTTP查询服务：图只构建一次，并发地以JSON响应查询请求
+ * 接口（均为 GET）：
+ *   /bridge?word1=..&word2=..
+ *   /expand?text=..
+ *   /path?start=..[&end=..]
+ *   /distance?from=w1,w2,..   到任一给定单词的最短距离
+ *   /pagerank[?d=..&k=..]
+ *   /walk[?seed=..]
+ *   /stats[?reach=1]    强连通分量、度分布等结构统计，reach=1 时附带平均可达节点数
+ *   /next?word=..[&k=..]、/prev?word=..[&k=..]、/edges[?k=..]  权重最大的后继、前驱和边
+ *   /metrics  各接口的请求数、错误数、被拒绝数和延迟统计
+ * 启动参数 --order 大于 1 时 expand 和 walk 使用 k 阶图；--tokenizer、--stop-words、--stem、--prune、--off-heap、--stream 与批处理模式相同
+ * 同时处理的请求数超过 maxInFlight 时直接返回 503，避免请求无限堆积
+ * 运行在支持虚拟线程的JDK上时每个请求使用一个虚拟线程，否则退回到缓存线程池
+ */
+public class QueryServer {
+    private static final String[] ENDPOINTS = {"bridge", "expand", "path", "distance", "pagerank", "walk", "stats", "next", "prev", "edges"};
+
+    private final QueryExecutor executor;
+    private final Semaphore permits;
+    private final int maxInFlight;
+    private final Map<String, EndpointMetrics> metrics = new LinkedHashMap<>();
+    private final LongAdder rejected = new LongAdder();
+    private HttpServer server;
+    private ExecutorService threads;
+
+    public QueryServer(WordGraph graph, TextProcessor processor, int maxInFlight) {
+        this(new QueryExecutor(graph, processor), maxInFlight);
+    }
+
+    public QueryServer(QueryExecutor executor, int maxInFlight) {
+        this.executor = executor;
+        this.maxInFlight = maxInFlight;
+        this.permits = new Semaphore(maxInFlight);
+        for (String endpoint : ENDPOINTS) {
+            metrics.put(endpoint, new EndpointMetrics());
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: --serve <corpus> [--port <n>] [--max-in-flight <n>] [--order <k>]"
+                    + " [--tokenizer ascii|unicode] [--stop-words] [--stem]"
+                    + " [--prune <minEdgeWeight>,<minNodeFrequency>[,<maxVocabulary>]] [--off-heap]"
+                    + " [--stream <memoryBudgetBytes>]");
+            System.exit(2);
+        }
+        int port = 8080;
+        int maxInFlight = 64;
+        int order = 1;
+        String tokenizer = TextProcessor.DEFAULT_TOKENIZER;
+        boolean stopWords = false;
+        boolean stem = false;
+        GraphPruner pruner = null;
+        boolean offHeap = false;
+        long streamBudget = 0;
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--port" -> port = Integer.parseInt(args[++i]);
+                case "--max-in-flight" -> maxInFlight = Integer.parseInt(args[++i]);
+                case "--order" -> order = Integer.parseInt(args[++i]);
+                case "--tokenizer" -> tokenizer = args[++i];
+                case "--stop-words" -> stopWords = true;
+                case "--stem" -> stem = true;
+                case "--prune" -> pruner = GraphPruner.parse(args[++i]);
+                case "--off-heap" -> offHeap = true;
+                case "--stream" -> streamBudget = Long.parseLong(args[++i]);
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        TextProcessor processor = TextProcessor.create(tokenizer, stopWords, stem);
+        QueryExecutor executor = BatchRunner.buildExecutor(args[0], processor, order, pruner, offHeap, streamBudget);
+
+        QueryServer queryServer = new QueryServer(executor, maxInFlight);
+        queryServer.start(port);
+        System.out.println("Listening on http://localhost:" + queryServer.port() + "/ (" + executor.nodeCount() + " nodes)");
+    }
+
+    //启动服务，port 为 0 时由系统分配端口，只绑定回环地址
+    public void start(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), maxInFlight);
+        for (String endpoint : ENDPOINTS) {
+            server.createContext("/" + endpoint, exchange -> handle(endpoint, exchange));
+        }
+        server.createContext("/metrics", exchange -> {
+            if (rejectPrefixMatch("metrics", exchange)) {
+                return;
+            }
+            send(exchange, 200, metricsSnapshot());
+        });
+        threads = newRequestExecutor();
+        server.setExecutor(threads);
+        server.start();
+    }
+
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+            threads.shutdownNow();
+        }
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    private void handle(String endpoint, HttpExchange exchange) throws IOException {
+        if (rejectPrefixMatch(endpoint, exchange)) {
+            return;
+        }
+        EndpointMetrics endpointMetrics = metrics.get(endpoint);
+        if (!permits.tryAcquire()) {
+            rejected.increment();
+            endpointMetrics.rejected.increment();
+            exchange.getResponseHeaders().set("Retry-After", "1");
+            send(exchange, 503, Map.of("error", "Server busy"));
+            return;
+        }
+        long begin = System.nanoTime();
+        int status = 500;
+        Object body = Map.of("error", "Internal error");
+        try {
+            body = dispatch(endpoint, parseQuery(exchange.getRequestURI().getRawQuery()));
+            status = 200;
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            status = 400;
+            body = Map.of("error", String.valueOf(e.getMessage()));
+        } catch (Throwable e) {
+            // 包括 StackOverflowError 等 Error，同样返回 500 而不是让连接挂起
+            body = Map.of("error", e.toString());
+        } finally {
+            permits.release();
+            // 每个请求都记录指标并发送响应
+            endpointMetrics.record(System.nanoTime() - begin, status != 200);
+            send(exchange, status, body);
+        }
+    }
+
+    private Map<String, Object> dispatch(String endpoint, Map<String, String> params) {
+        switch (endpoint) {
+            case "bridge":
+                return executor.bridge(executor.normalize(required(params, "word1")), executor.normalize(required(params, "word2")));
+            case "expand":
+                return executor.expand(required(params, "text"));
+            case "path":
+                String end = params.get("end");
+                return executor.path(executor.normalize(required(params, "start")),
+                        end == null || end.isEmpty() ? null : executor.normalize(end));
+            case "distance":
+                List<String> sources = new ArrayList<>();
+                for (String word : required(params, "from").split(",")) {
+                    if (!word.isBlank()) {
+                        sources.add(executor.normalize(word));
+                    }
+                }
+                return executor.distances(sources);
+            case "pagerank":
+                double d = params.containsKey("d") ? Double.parseDouble(params.get("d")) : 0.85;
+                return executor.pageRank(d, intParam(params, "k", Integer.MAX_VALUE));
+            case "walk":
+                Random random = params.containsKey("seed") ? new Random(Long.parseLong(params.get("seed"))) : new Random();
+                return executor.walk(random);
+            case "stats":
+                return executor.stats("1".equals(params.get("reach")) || "true".equals(params.get("reach")));
+            case "next":
+                return executor.nextWords(executor.normalize(required(params, "word")), intParam(params, "k", 10));
+            case "prev":
+                return executor.predecessors(executor.normalize(required(params, "word")), intParam(params, "k", 10));
+            case "edges":
+                return executor.topEdges(intParam(params, "k", 10));
+            default:
+                throw new IllegalArgumentException("Unknown endpoint: " + endpoint);
+        }
+    }
+
+    // createContext 按前缀匹配，/pathfoo 也会进入 /path 的处理器，路径不完全相同时返回 404
+    private static boolean rejectPrefixMatch(String endpoint, HttpExchange exchange) throws IOException {
+        if (exchange.getRequestURI().getPath().equals("/" + endpoint)) {
+            return false;
+        }
+        send(exchange, 404, Map.of("error", "Not found: " + exchange.getRequestURI().getPath()));
+        return true;
+    }
+
+    private Map<String, Object> metricsSnapshot() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("inFlight", maxInFlight - permits.availablePermits());
+        result.put("maxInFlight", maxInFlight);
+        result.put("rejected", rejected.sum());
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        metrics.forEach((name, m) -> endpoints.put(name, m.toMap()));
+        result.put("endpoints", endpoints);
+        return result;
+    }
+
+    private static String required(Map<String, String> params, String name) {
+        String value = params.get(name);
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException("Missing parameter: " + name);
+        }
+        return value;
+    }
+
+    private static int intParam(Map<String, String> params, String name, int defaultValue) {
+        return params.containsKey(name) ? Integer.parseInt(params.get(name)) : defaultValue;
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return params;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq >= 0 ? pair.substring(0, eq) : pair;
+            String value = eq >= 0 ? pair.substring(eq + 1) : "";
+            params.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+
+    private static void send(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] bytes = Json.toJson(body).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+
+    // JDK 21 及以上使用虚拟线程，否则使用缓存线程池（并发数由 maxInFlight 限制）
+    private static ExecutorService newRequestExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "query-server");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    //单个接口的延迟统计
+    private static class EndpointMetrics {
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        void record(long nanos, boolean error) {
+            requests.increment();
+            if (error) {
+                errors.increment();
+            }
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        Map<String, Object> toMap() {
+            long count = requests.sum();
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("requests", count);
+            result.put("errors", errors.sum());
+            result.put("rejected", rejected.sum());
+            result.put("avgMillis", count == 0 ? 0.0 : totalNanos.sum() / 1e6 / count);
+            result.put("maxMillis", maxNanos.get() / 1e6);
+            return result;
+        }
+    }
+}
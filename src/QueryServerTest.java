@@ -0,0 +1,159 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryServerTest {
+
+    private QueryServer server;
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        WordGraph graph = new WordGraph();
+        List<String> words = Arrays.asList(
+                "the", "scientist", "analyzed", "the", "data", "so", "the", "scientist", "analyzed", "it", "again");
+        graph.buildGraph(words);
+        server = new QueryServer(graph, new TextProcessor(), 4);
+        server.start(0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop();
+    }
+
+    private HttpResponse<String> get(String pathAndQuery) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.port() + pathAndQuery)).build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    void testBridgeWords() throws Exception {
+        HttpResponse<String> response = get("/bridge?word1=analyzed&word2=again");
+        assertEquals(200, response.statusCode());
+        assertEquals("{\"bridges\":[\"it\"],\"message\":\"The bridge word from analyzed to again is: it.\"}",
+                response.body());
+    }
+
+    @Test
+    void testShortestPath() throws Exception {
+        HttpResponse<String> response = get("/path?start=so&end=data");
+        assertEquals(200, response.statusCode());
+        assertEquals("{\"paths\":{\"data\":[[\"so\",\"the\",\"data\"]]}}", response.body());
+    }
+
+    @Test
+    void testMissingParameter_BadRequest() throws Exception {
+        HttpResponse<String> response = get("/bridge?word1=the");
+        assertEquals(400, response.statusCode());
+        assertTrue(response.body().contains("word2"));
+    }
+
+    @Test
+    void testMetricsCountRequests() throws Exception {
+        get("/pagerank?k=2");
+        get("/pagerank?k=2");
+        HttpResponse<String> response = get("/metrics");
+        assertEquals(200, response.statusCode());
+        assertTrue(response.body().contains("\"pagerank\":{\"requests\":2,"));
+    }
+
+    @Test
+    void testDampingFactorOutOfRange_BadRequest() throws Exception {
+        assertEquals(400, get("/pagerank?d=7").statusCode());
+        assertEquals(200, get("/pagerank?d=0.5&k=1").statusCode());
+    }
+
+    @Test
+    void testQueryWordsNormalized() throws Exception {
+        HttpResponse<String> response = get("/next?word=Scientist&k=1");
+        assertEquals(200, response.statusCode());
+        assertTrue(response.body().contains("\"source\":\"scientist\""));
+        assertEquals(400, get("/next?word=123").statusCode());
+        assertEquals(400, get("/bridge?word1=the&word2=so%20data").statusCode());
+    }
+
+    @Test
+    void testPrefixOfEndpoint_NotFound() throws Exception {
+        assertEquals(404, get("/pathfoo?start=the").statusCode());
+        assertEquals(404, get("/metrics/x").statusCode());
+        assertEquals(200, get("/path?start=the").statusCode());
+    }
+
+    @Test
+    void testBackpressure_ServiceUnavailable() throws Exception {
+        WordGraph graph = new WordGraph();
+        graph.buildGraph(Arrays.asList("a", "b", "c"));
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        // stats 阻塞在 latch 上，一直占用唯一的许可
+        QueryExecutor blocking = new QueryExecutor(graph, new TextProcessor()) {
+            @Override
+            public Map<String, Object> stats(boolean includeReachability) {
+                entered.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.stats(includeReachability);
+            }
+        };
+        server.stop();
+        server = new QueryServer(blocking, 1);
+        server.start(0);
+
+        CompletableFuture<HttpResponse<String>> held = CompletableFuture.supplyAsync(() -> {
+            try {
+                return get("/stats");
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertTrue(entered.await(10, TimeUnit.SECONDS));
+        HttpResponse<String> busy = get("/bridge?word1=a&word2=c");
+        assertEquals(503, busy.statusCode());
+        assertEquals("1", busy.headers().firstValue("Retry-After").orElse(null));
+
+        release.countDown();
+        assertEquals(200, held.get(10, TimeUnit.SECONDS).statusCode());
+        String metrics = get("/metrics").body();
+        assertTrue(metrics.contains("\"rejected\":1,"));
+        assertTrue(metrics.contains("\"bridge\":{\"requests\":0,"));
+    }
+
+    @Test
+    void testErrorInQuery_InternalServerError() throws Exception {
+        WordGraph graph = new WordGraph();
+        graph.buildGraph(Arrays.asList("a", "b", "c"));
+        QueryExecutor failing = new QueryExecutor(graph, new TextProcessor()) {
+            @Override
+            public Map<String, Object> stats(boolean includeReachability) {
+                throw new StackOverflowError();
+            }
+        };
+        server.stop();
+        server = new QueryServer(failing, 1);
+        server.start(0);
+
+        HttpResponse<String> response = get("/stats");
+        assertEquals(500, response.statusCode());
+        assertTrue(response.body().contains("StackOverflowError"));
+        // 许可已归还，后续请求正常处理
+        assertEquals(200, get("/bridge?word1=a&word2=c").statusCode());
+        assertTrue(get("/metrics").body().contains("\"stats\":{\"requests\":1,\"errors\":1,"));
+    }
+}
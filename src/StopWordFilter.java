@@ -0,0 +1,76 @@
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 停用词过滤：词在停用词表中时直接丢弃
+ * 停用词存放在按字符内容哈希的开放寻址表中，直接用 buffer 查找，不创建 String
+ */
+public class StopWordFilter implements TokenFilter {
+    private static final List<String> ENGLISH = Arrays.asList(
+            "a", "an", "and", "are", "as", "at", "be", "but", "by", "for", "if", "in", "into", "is", "it",
+            "no", "not", "of", "on", "or", "such", "that", "the", "their", "then", "there", "these",
+            "they", "this", "to", "was", "will", "with");
+
+    private final char[][] table;
+    private final int mask;
+
+    public StopWordFilter(Collection<String> stopWords) {
+        int capacity = Integer.highestOneBit(Math.max(4, stopWords.size() * 2) - 1) << 1;
+        table = new char[capacity][];
+        mask = capacity - 1;
+        for (String word : stopWords) {
+            char[] chars = word.toCharArray();
+            int slot = hash(chars, chars.length) & mask;
+            while (table[slot] != null && !equals(table[slot], chars, chars.length)) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = chars;
+        }
+    }
+
+    // 常用英文停用词
+    public static StopWordFilter english() {
+        return new StopWordFilter(ENGLISH);
+    }
+
+    public boolean contains(char[] buffer, int length) {
+        int slot = hash(buffer, length) & mask;
+        while (table[slot] != null) {
+            if (equals(table[slot], buffer, length)) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    @Override
+    public TokenSink wrap(TokenSink next) {
+        return (buffer, length) -> {
+            if (!contains(buffer, length)) {
+                next.accept(buffer, length);
+            }
+        };
+    }
+
+    private static int hash(char[] chars, int length) {
+        int h = 0;
+        for (int i = 0; i < length; i++) {
+            h = 31 * h + chars[i];
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private static boolean equals(char[] word, char[] buffer, int length) {
+        if (word.length != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (word[i] != buffer[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
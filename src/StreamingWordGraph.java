@@ -0,0 +1,209 @@
+import java.util.*;
+
+/**
+ * 有界内存的流式建图：适用于无限增长的文本流
+ * 所有边的次数都记入 Count-Min Sketch；只有高频边（heavy hitter）保存在精确的邻接表中
+ * 高频边中的单词编号为 int，边以 (源编号 << 32 | 目标编号) 为键存放在 LongIntHashMap 中；
+ * 邻接表与词表（字符串本身、HashMap 条目和编号）的总字节数超过预算时淘汰次数最低的四分之一，
+ * 之后只有估计次数超过淘汰门槛的边才能重新进入
+ * 作为 TokenSink 时直接对字符片段计算 sketch 的键，只有可能在邻接表中或可能被接纳的边才创建 String
+ *
+ * 误差说明（N 为已处理的边数，epsilon、confidence 见 CountMinSketch）：
+ *   getEdgeWeight 返回值不小于真实次数，并以至少 confidence 的概率不超过 真实次数 + epsilon * N；
+ *   高频边进入邻接表时以当时的估计值为初值，之后精确累加，因此满足同样的上界
+ *   toWordGraph 只包含高频边，PageRank、随机游走等带权算法在其上运行时，边权误差同上
+ */
+public class StreamingWordGraph implements TokenSink {
+    // 词表中每个单词除字符外的大致开销：String 与 byte[] 对象头、HashMap 条目、装箱的 Integer、列表和哈希表槽位
+    static final int BYTES_PER_WORD = 104;
+    private static final int SKETCH_DEPTH = 5;
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final char SEPARATOR = 0xffff;
+
+    private final CountMinSketch sketch;
+    private final long heavyBudgetBytes;
+    // 只包含高频边用到的单词，淘汰时重新编号
+    private Map<String, Integer> vocabulary = new HashMap<>();
+    private List<String> words = new ArrayList<>();
+    private long vocabularyBytes;
+    private LongIntHashMap heavyEdges = new LongIntHashMap();
+    private int admissionThreshold;
+    // 上一个词的字符，previousLength 为 -1 时表示没有上一个词
+    private char[] previous = new char[32];
+    private int previousLength = -1;
+
+    // 内存预算的一半给 sketch，另一半给高频边邻接表和词表
+    public StreamingWordGraph(long memoryBudgetBytes) {
+        this(CountMinSketch.withMemory(memoryBudgetBytes / 2, SKETCH_DEPTH), memoryBudgetBytes / 2);
+    }
+
+    public StreamingWordGraph(CountMinSketch sketch, long heavyBudgetBytes) {
+        this.sketch = sketch;
+        this.heavyBudgetBytes = heavyBudgetBytes;
+    }
+
+    @Override
+    public void accept(char[] buffer, int length) {
+        if (previousLength >= 0) {
+            long key = hash(hash(hash(FNV_OFFSET, previous, previousLength), SEPARATOR), buffer, length);
+            sketch.add(key, 1);
+            int estimate = sketch.estimate(key);
+            // 邻接表中的边次数不低于门槛且不超过估计值，估计值低于门槛的边既不在表中也不会被接纳
+            if (estimate >= admissionThreshold) {
+                recordHeavy(new String(previous, 0, previousLength), new String(buffer, 0, length), estimate);
+            }
+        }
+        if (previous.length < length) {
+            previous = new char[Math.max(length, previous.length * 2)];
+        }
+        System.arraycopy(buffer, 0, previous, 0, length);
+        previousLength = length;
+    }
+
+    // 处理流中的下一个词
+    public void add(String word) {
+        accept(word.toCharArray(), word.length());
+    }
+
+    // 处理一段文本，与 WordGraph.buildGraph 一样，不同文本之间不连边
+    public void buildGraph(CharSequence text, TextProcessor processor) {
+        previousLength = -1;
+        processor.process(text, this);
+        previousLength = -1;
+    }
+
+    public int getEdgeWeight(String source, String target) {
+        int count = heavyCount(source, target);
+        return count != LongIntHashMap.MISSING ? count : sketch.estimate(edgeKey(source, target));
+    }
+
+    // 当前的加性误差上界 epsilon * N
+    public long errorBound() {
+        return sketch.errorBound();
+    }
+
+    public double confidence() {
+        return sketch.confidence();
+    }
+
+    public long totalEdges() {
+        return sketch.totalCount();
+    }
+
+    public int heavyEdgeCount() {
+        return heavyEdges.size();
+    }
+
+    // 当前占用的内存（近似），包括 sketch、邻接表和词表
+    public long memoryBytes() {
+        return sketch.memoryBytes() + heavyMemoryBytes();
+    }
+
+    // 由高频边生成单词图，边权为估计次数
+    public WordGraph toWordGraph() {
+        WordGraph graph = new WordGraph();
+        heavyEdges.forEach((key, count) -> graph.addEdge(words.get((int) (key >>> 32)), words.get((int) key), count));
+        return graph;
+    }
+
+    // 已在邻接表中的边精确累加，否则估计值超过门槛时接纳
+    private void recordHeavy(String source, String target, int estimate) {
+        int count = heavyCount(source, target);
+        if (count != LongIntHashMap.MISSING) {
+            heavyEdges.put(pack(vocabulary.get(source), vocabulary.get(target)), count + 1);
+            return;
+        }
+        if (estimate <= admissionThreshold) {
+            return;
+        }
+        int sourceId = intern(source);
+        heavyEdges.put(pack(sourceId, intern(target)), estimate);
+        while (heavyMemoryBytes() > heavyBudgetBytes && heavyEdges.size() > 0) {
+            evict();
+        }
+    }
+
+    // 高频边的精确次数，不在邻接表中时返回 MISSING
+    private int heavyCount(String source, String target) {
+        Integer sourceId = vocabulary.get(source);
+        Integer targetId = vocabulary.get(target);
+        if (sourceId == null || targetId == null) {
+            return LongIntHashMap.MISSING;
+        }
+        return heavyEdges.get(pack(sourceId, targetId));
+    }
+
+    private long heavyMemoryBytes() {
+        return heavyEdges.memoryBytes() + vocabularyBytes;
+    }
+
+    private int intern(String word) {
+        Integer id = vocabulary.get(word);
+        if (id == null) {
+            id = words.size();
+            vocabulary.put(word, id);
+            words.add(word);
+            vocabularyBytes += BYTES_PER_WORD + (long) word.length() * Character.BYTES;
+        }
+        return id;
+    }
+
+    // 淘汰次数最低的四分之一，并把门槛提高到被淘汰的最大次数
+    // 幸存的边重建到按其数量分配的新表中，不再被引用的单词随之从词表中移除
+    private void evict() {
+        int size = heavyEdges.size();
+        int[] counts = new int[size];
+        int[] index = {0};
+        heavyEdges.forEach((key, count) -> counts[index[0]++] = count);
+        Arrays.sort(counts);
+        int removeCount = Math.max(1, size / 4);
+        int cutoff = counts[removeCount - 1];
+
+        List<String> oldWords = words;
+        LongIntHashMap oldEdges = heavyEdges;
+        vocabulary = new HashMap<>();
+        words = new ArrayList<>();
+        vocabularyBytes = 0;
+        heavyEdges = new LongIntHashMap(size - removeCount);
+        // 次数等于 cutoff 的边可能多于需要淘汰的数量，只淘汰到数量够为止
+        int[] remaining = {removeCount};
+        oldEdges.forEach((key, count) -> {
+            if (remaining[0] > 0 && count <= cutoff) {
+                remaining[0]--;
+                return;
+            }
+            int sourceId = intern(oldWords.get((int) (key >>> 32)));
+            heavyEdges.put(pack(sourceId, intern(oldWords.get((int) key))), count);
+        });
+        admissionThreshold = Math.max(admissionThreshold, cutoff);
+    }
+
+    private static long pack(int sourceId, int targetId) {
+        return (long) sourceId << 32 | (targetId & 0xffffffffL);
+    }
+
+    // 对 source 和 target 的字符计算 64 位 FNV-1a 哈希，作为 sketch 的键；与 accept 中对字符片段的计算一致
+    private static long edgeKey(String source, String target) {
+        long h = FNV_OFFSET;
+        for (int i = 0; i < source.length(); i++) {
+            h = hash(h, source.charAt(i));
+        }
+        h = hash(h, SEPARATOR);
+        for (int i = 0; i < target.length(); i++) {
+            h = hash(h, target.charAt(i));
+        }
+        return h;
+    }
+
+    private static long hash(long h, char[] chars, int length) {
+        for (int i = 0; i < length; i++) {
+            h = hash(h, chars[i]);
+        }
+        return h;
+    }
+
+    private static long hash(long h, char c) {
+        return (h ^ c) * FNV_PRIME;
+    }
+}
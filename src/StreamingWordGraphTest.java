@@ -0,0 +1,106 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingWordGraphTest {
+
+    @Test
+    void testLargeBudgetIsExact() {
+        String text = "the scientist analyzed the data so the scientist analyzed it again";
+        TextProcessor processor = new TextProcessor();
+        WordGraph graph = new WordGraph();
+        graph.buildGraph(processor.processText(text));
+        StreamingWordGraph streaming = new StreamingWordGraph(1 << 20);
+        streaming.buildGraph(text, processor);
+
+        assertEquals(graph.getEdgeWeight("the", "scientist"), streaming.getEdgeWeight("the", "scientist"));
+        assertEquals(graph.getEdgeWeight("analyzed", "it"), streaming.getEdgeWeight("analyzed", "it"));
+        assertEquals(graph.nodeCount(), streaming.toWordGraph().nodeCount());
+    }
+
+    @Test
+    void testEstimatesWithinErrorBound() {
+        // 一条高频边混在大量随机的低频边中
+        CountMinSketch sketch = CountMinSketch.withError(0.01, 0.01);
+        StreamingWordGraph streaming = new StreamingWordGraph(sketch, 8 << 10);
+        Random random = new Random(42);
+        int heavy = 0;
+        for (int i = 0; i < 20000; i++) {
+            if (i % 10 == 0) {
+                streaming.add("hot");
+                streaming.add("spot");
+                heavy++;
+            } else {
+                streaming.add("w" + random.nextInt(5000));
+            }
+        }
+        int estimate = streaming.getEdgeWeight("hot", "spot");
+        assertTrue(estimate >= heavy);
+        assertTrue(estimate <= heavy + streaming.errorBound());
+        assertTrue(streaming.heavyEdgeCount() > 0);
+        assertTrue(streaming.memoryBytes() <= sketch.memoryBytes() + (8 << 10));
+        assertEquals("hot", streaming.toWordGraph().topEdges(1).get(0).getSource());
+    }
+
+    @Test
+    void testLongWordsCountedInBudget() {
+        // 单词越长，预算内能保留的高频边越少，但总内存始终不超过预算
+        CountMinSketch sketch = CountMinSketch.withError(0.01, 0.01);
+        StreamingWordGraph shortWords = new StreamingWordGraph(sketch, 16 << 10);
+        StreamingWordGraph longWords = new StreamingWordGraph(CountMinSketch.withError(0.01, 0.01), 16 << 10);
+        String padding = "x".repeat(500);
+        Random random = new Random(7);
+        for (int i = 0; i < 20000; i++) {
+            int word = random.nextInt(200);
+            shortWords.add("w" + word);
+            longWords.add(padding + word);
+            assertTrue(longWords.memoryBytes() <= sketch.memoryBytes() + (16 << 10));
+        }
+        assertTrue(shortWords.memoryBytes() <= sketch.memoryBytes() + (16 << 10));
+        assertTrue(longWords.heavyEdgeCount() < shortWords.heavyEdgeCount());
+        assertTrue(longWords.heavyEdgeCount() > 0);
+    }
+
+    @Test
+    void testSketchNeverUnderestimates() {
+        CountMinSketch sketch = new CountMinSketch(50, 4);
+        long total = 0;
+        for (long item = 0; item < 1000; item++) {
+            sketch.add(item, (int) (item % 7) + 1);
+            total += item % 7 + 1;
+        }
+        for (long item = 0; item < 1000; item++) {
+            assertTrue(sketch.estimate(item) >= item % 7 + 1);
+        }
+        assertEquals(total, sketch.totalCount());
+    }
+
+    @Test
+    void testTokenSinkMatchesAdd() {
+        StreamingWordGraph fromChars = new StreamingWordGraph(1 << 20);
+        StreamingWordGraph fromStrings = new StreamingWordGraph(1 << 20);
+        String text = "to be or not to be that is the question to be";
+        TextProcessor processor = new TextProcessor();
+        fromChars.buildGraph(text, processor);
+        for (String word : processor.processText(text)) {
+            fromStrings.add(word);
+        }
+        assertEquals(3, fromChars.getEdgeWeight("to", "be"));
+        assertEquals(fromStrings.getEdgeWeight("to", "be"), fromChars.getEdgeWeight("to", "be"));
+        assertEquals(fromStrings.getEdgeWeight("be", "or"), fromChars.getEdgeWeight("be", "or"));
+        assertEquals(fromStrings.totalEdges(), fromChars.totalEdges());
+    }
+
+    @Test
+    void testStreamingBackendInBatch() throws Exception {
+        GraphFixtures.withCorpus("the scientist analyzed the data so the scientist analyzed it again", corpus -> {
+            QueryExecutor executor = BatchRunner.buildExecutor(corpus, new TextProcessor(), 1, null, false, 1 << 20);
+            assertEquals("{\"next\":[{\"source\":\"the\",\"target\":\"scientist\",\"weight\":2}]}",
+                    Json.toJson(executor.execute("next the 1")));
+            assertThrows(IllegalArgumentException.class,
+                    () -> BatchRunner.buildExecutor(corpus, new TextProcessor(), 2, null, false, 1 << 20));
+        });
+    }
+}
@@ -0,0 +1,77 @@
+/**
+ * 轻量的英文词干提取，只处理常见的屈折后缀（复数 -s/-es/-ies，-ed，-ing），原地缩短 buffer 中的词
+ * 只对纯 ASCII 小写词生效，其他语言的词原样通过
+ */
+public class SuffixStemmer implements TokenFilter {
+
+    @Override
+    public TokenSink wrap(TokenSink next) {
+        return (buffer, length) -> next.accept(buffer, stem(buffer, length));
+    }
+
+    // 返回词干的长度
+    public int stem(char[] w, int length) {
+        for (int i = 0; i < length; i++) {
+            if (w[i] < 'a' || w[i] > 'z') {
+                return length;
+            }
+        }
+        if (length <= 3) {
+            return length;
+        }
+        // 复数
+        if (endsWith(w, length, "sses")) {
+            return length - 2;
+        }
+        if (endsWith(w, length, "ies")) {
+            w[length - 3] = 'y';
+            return length - 2;
+        }
+        if (w[length - 1] == 's' && w[length - 2] != 's' && w[length - 2] != 'u') {
+            return length - 1;
+        }
+        // 过去式和进行时，要求剩余部分含元音，避免 "red"、"sing" 被截断
+        if (endsWith(w, length, "ed") && hasVowel(w, length - 2)) {
+            return undouble(w, length - 2);
+        }
+        if (endsWith(w, length, "ing") && hasVowel(w, length - 3)) {
+            return undouble(w, length - 3);
+        }
+        return length;
+    }
+
+    // 去掉后缀后若以双辅音结尾（stopp、runn），再去掉一个（l、s、z 除外）
+    private static int undouble(char[] w, int length) {
+        if (length >= 2 && w[length - 1] == w[length - 2] && !isVowel(w[length - 1])
+                && w[length - 1] != 'l' && w[length - 1] != 's' && w[length - 1] != 'z') {
+            return length - 1;
+        }
+        return length;
+    }
+
+    private static boolean endsWith(char[] w, int length, String suffix) {
+        int start = length - suffix.length();
+        if (start < 0) {
+            return false;
+        }
+        for (int i = 0; i < suffix.length(); i++) {
+            if (w[start + i] != suffix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean hasVowel(char[] w, int length) {
+        for (int i = 0; i < length; i++) {
+            if (isVowel(w[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isVowel(char c) {
+        return c == 'a' || c == 'e' || c == 'i' || c == 'o' || c == 'u' || c == 'y';
+    }
+}
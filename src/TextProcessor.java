@@ -1,19 +1,50 @@
 import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * 文本预处理：分词器 + 若干过滤阶段组成的流水线
+ * 默认使用 ASCII 分词（只保留 a-z 并转小写）；非英文语料使用 UnicodeTokenizer
+ */
 public class TextProcessor {
+    // 交互菜单、批处理和查询服务共用的默认分词器名称，保证同一语料在各入口得到相同的图
+    public static final String DEFAULT_TOKENIZER = "ascii";
+
+    private final Tokenizer tokenizer;
+    private final TokenFilter[] filters;
+
+    public TextProcessor() {
+        this(Tokenizer.forName(DEFAULT_TOKENIZER));
+    }
+
+    public TextProcessor(Tokenizer tokenizer, TokenFilter... filters) {
+        this.tokenizer = tokenizer;
+        this.filters = filters.clone();
+    }
+
+    // 按名称组合流水线，供命令行参数使用
+    public static TextProcessor create(String tokenizerName, boolean stopWords, boolean stem) {
+        List<TokenFilter> filters = new ArrayList<>();
+        if (stopWords) {
+            filters.add(StopWordFilter.english());
+        }
+        if (stem) {
+            filters.add(new SuffixStemmer());
+        }
+        return new TextProcessor(Tokenizer.forName(tokenizerName), filters.toArray(new TokenFilter[0]));
+    }
+
     public List<String> processText(String text) {
-        // 替换换行符和非字母字符为空格，转小写
-        String cleaned = text.toLowerCase()
-                .replaceAll("[^a-z]", " ")
-                .replaceAll("\\r?\\n", " ");
-        String[] words = cleaned.split("\\s+");
         List<String> wordList = new ArrayList<>();
-        for (String word : words) {
-            if (!word.isEmpty()) {
-                wordList.add(word);
-            }
-        }
+        process(text, (buffer, length) -> wordList.add(new String(buffer, 0, length)));
         return wordList;
     }
+
+    // 流式处理：每个词依次经过各个过滤阶段后交给 sink
+    public void process(CharSequence text, TokenSink sink) {
+        TokenSink pipeline = sink;
+        for (int i = filters.length - 1; i >= 0; i--) {
+            pipeline = filters[i].wrap(pipeline);
+        }
+        tokenizer.tokenize(text, pipeline);
+    }
 }
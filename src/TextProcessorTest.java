@@ -0,0 +1,36 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TextProcessorTest {
+
+    @Test
+    void testAsciiDefaultDropsNonLetters() {
+        assertEquals(Arrays.asList("hello", "world", "it", "s", "rd", "time"),
+                new TextProcessor().processText("Hello, World!! it's 3rd-time"));
+    }
+
+    @Test
+    void testUnicodeKeepsAccentsAndSplitsIdeographs() {
+        TextProcessor processor = new TextProcessor(new UnicodeTokenizer());
+        assertEquals(Arrays.asList("café", "naïve"), processor.processText("Café NAÏVE"));
+        assertEquals(Arrays.asList("我", "爱", "北", "京"), processor.processText("我爱北京。"));
+    }
+
+    @Test
+    void testStopWordsAndStemming() {
+        TextProcessor processor = TextProcessor.create("ascii", true, true);
+        List<String> words = processor.processText("The studies were running and the cats stopped");
+        assertEquals(Arrays.asList("study", "were", "run", "cat", "stop"), words);
+    }
+
+    @Test
+    void testStreamingSinkSeesEveryToken() {
+        int[] count = new int[1];
+        new TextProcessor(new UnicodeTokenizer()).process("one two 三", (buffer, length) -> count[0]++);
+        assertEquals(3, count[0]);
+    }
+}
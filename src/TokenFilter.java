@@ -0,0 +1,8 @@
+/**
+ * 分词后的处理阶段（停用词、词干提取等），包装下游的 TokenSink 形成流水线
+ * 可以原地修改 buffer 的内容和长度后再交给下游，或者直接丢弃该词
+ */
+@FunctionalInterface
+public interface TokenFilter {
+    TokenSink wrap(TokenSink next);
+}
@@ -0,0 +1,8 @@
+/**
+ * 接收分词结果的回调：词的字符位于 buffer[0, length)
+ * buffer 由分词器复用，只在本次调用期间有效，需要保留时自行复制（例如 new String(buffer, 0, length)）
+ */
+@FunctionalInterface
+public interface TokenSink {
+    void accept(char[] buffer, int length);
+}
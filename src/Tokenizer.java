@@ -0,0 +1,18 @@
+/**
+ * 分词器：把文本切分成小写的词，逐个交给 TokenSink，不为每个词创建 String
+ */
+public interface Tokenizer {
+    void tokenize(CharSequence text, TokenSink sink);
+
+    // 按名称创建分词器：ascii 或 unicode
+    static Tokenizer forName(String name) {
+        switch (name.toLowerCase()) {
+            case "ascii":
+                return new AsciiTokenizer();
+            case "unicode":
+                return new UnicodeTokenizer();
+            default:
+                throw new IllegalArgumentException("Unknown tokenizer: " + name);
+        }
+    }
+}
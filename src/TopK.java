@@ -0,0 +1,113 @@
+import java.util.*;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * 用大小为 K 的小根堆选出最大的 K 个元素，时间 O(n log K)，不对全部元素排序
+ */
+public final class TopK {
+
+    private TopK() {
+    }
+
+    /**
+     * 在下标 0..n-1 中选出 score 最大的 k 个，按 score 从大到小返回
+     * score 相同时下标小的排在前面
+     */
+    public static int[] largestIndices(int n, IntToDoubleFunction score, int k) {
+        k = Math.min(k, n);
+        if (k <= 0) {
+            return new int[0];
+        }
+        // heap[0] 是当前 k 个中最小的
+        int[] heap = new int[k];
+        double[] keys = new double[k];
+        int size = 0;
+        for (int i = 0; i < n; i++) {
+            double s = score.applyAsDouble(i);
+            if (size < k) {
+                heap[size] = i;
+                keys[size] = s;
+                siftUp(heap, keys, size++);
+            } else if (s > keys[0]) {
+                heap[0] = i;
+                keys[0] = s;
+                siftDown(heap, keys, size);
+            }
+        }
+        // 依次弹出堆顶，得到从小到大的序列，倒序填入结果
+        int[] result = new int[size];
+        for (int last = size - 1; last >= 0; last--) {
+            result[last] = heap[0];
+            heap[0] = heap[last];
+            keys[0] = keys[last];
+            siftDown(heap, keys, last);
+        }
+        return result;
+    }
+
+    // 从集合中选出最大的 k 个，按从大到小返回
+    public static <T> List<T> largest(Collection<T> items, int k, Comparator<? super T> comparator) {
+        if (k <= 0) {
+            return new ArrayList<>();
+        }
+        PriorityQueue<T> heap = new PriorityQueue<>(Math.min(k, Math.max(1, items.size())), comparator);
+        for (T item : items) {
+            if (heap.size() < k) {
+                heap.add(item);
+            } else if (comparator.compare(item, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(item);
+            }
+        }
+        List<T> result = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            result.add(heap.poll());
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    // a 比 b "更小"：分数更低，或分数相同但下标更大
+    private static boolean less(int[] heap, double[] keys, int a, int b) {
+        return keys[a] < keys[b] || (keys[a] == keys[b] && heap[a] > heap[b]);
+    }
+
+    private static void siftUp(int[] heap, double[] keys, int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!less(heap, keys, i, parent)) {
+                break;
+            }
+            swap(heap, keys, i, parent);
+            i = parent;
+        }
+    }
+
+    private static void siftDown(int[] heap, double[] keys, int size) {
+        int i = 0;
+        while (true) {
+            int left = 2 * i + 1;
+            if (left >= size) {
+                break;
+            }
+            int smallest = left;
+            if (left + 1 < size && less(heap, keys, left + 1, left)) {
+                smallest = left + 1;
+            }
+            if (!less(heap, keys, smallest, i)) {
+                break;
+            }
+            swap(heap, keys, i, smallest);
+            i = smallest;
+        }
+    }
+
+    private static void swap(int[] heap, double[] keys, int a, int b) {
+        int h = heap[a];
+        heap[a] = heap[b];
+        heap[b] = h;
+        double k = keys[a];
+        keys[a] = keys[b];
+        keys[b] = k;
+    }
+}
@@ -0,0 +1,89 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TopKTest {
+
+    private WordGraph graph;
+
+    @BeforeEach
+    void setUp() {
+        graph = new WordGraph();
+        graph.buildGraph(Arrays.asList(
+                "the", "scientist", "carefully", "analyzed", "the", "data",
+                "wrote", "a", "detailed", "report", "and", "shared", "the", "report",
+                "with", "the", "team", "but", "the", "team", "requested", "more", "data",
+                "so", "the", "scientist", "analyzed", "it", "again"));
+    }
+
+    @Test
+    void testLargestIndices() {
+        double[] scores = {0.5, 3.0, 1.0, 3.0, 2.0};
+        assertArrayEquals(new int[]{1, 3, 4}, TopK.largestIndices(scores.length, i -> scores[i], 3));
+        assertArrayEquals(new int[]{1, 3, 4, 2, 0}, TopK.largestIndices(scores.length, i -> scores[i], 10));
+        assertEquals(0, TopK.largestIndices(scores.length, i -> scores[i], 0).length);
+    }
+
+    @Test
+    void testTopNextWords() {
+        List<WeightedEdge> next = graph.topNextWords("the", 2);
+        assertEquals(Set.of(
+                new WeightedEdge("the", "scientist", 2),
+                new WeightedEdge("the", "team", 2)), new HashSet<>(next));
+        // 权重相同时按快照中的节点编号排列，与 HashMap 的遍历顺序无关
+        GraphSnapshot snapshot = graph.snapshot();
+        assertTrue(snapshot.indexOf(next.get(0).getTarget()) < snapshot.indexOf(next.get(1).getTarget()));
+        assertTrue(graph.topNextWords("missing", 3).isEmpty());
+    }
+
+    @Test
+    void testTopPredecessors() {
+        List<WeightedEdge> prev = graph.topPredecessors("data", 5);
+        assertEquals(2, prev.size());
+        assertEquals("data", prev.get(0).getTarget());
+    }
+
+    @Test
+    void testTopEdges() {
+        List<WeightedEdge> edges = graph.topEdges(2);
+        assertEquals(2, edges.size());
+        assertEquals(2, edges.get(0).getWeight());
+        assertEquals(2, edges.get(1).getWeight());
+    }
+
+    @Test
+    void testTopPageRankMatchesFullSort() {
+        List<Map.Entry<String, Double>> top = graph.topPageRank(0.85, 3);
+        assertEquals(3, top.size());
+        assertEquals("the", top.get(0).getKey());
+        double max = graph.computePageRank(0.85).values().stream().mapToDouble(Double::doubleValue).max().orElse(0);
+        assertEquals(max, top.get(0).getValue(), 1e-12);
+        assertTrue(top.get(1).getValue() >= top.get(2).getValue());
+    }
+
+    @Test
+    void testPageRankOrderSortedOnce() {
+        PageRank pageRank = PageRank.compute(graph.snapshot(), 0.85);
+        int[] order = pageRank.order();
+        assertEquals(graph.nodeCount(), order.length);
+        for (int i = 1; i < order.length; i++) {
+            assertTrue(pageRank.rank(order[i - 1]) >= pageRank.rank(order[i]));
+        }
+        assertSame(order, pageRank.order());
+
+        // 查询结果是排好序的前缀
+        QueryExecutor executor = new QueryExecutor(graph, new TextProcessor());
+        List<?> top = (List<?>) executor.pageRank(0.85, 2).get("ranks");
+        List<?> all = (List<?>) executor.pageRank(0.85, Integer.MAX_VALUE).get("ranks");
+        assertEquals(2, top.size());
+        assertEquals(order.length, all.size());
+        assertEquals(all.subList(0, 2), top);
+    }
+}
@@ -0,0 +1,51 @@
+import java.util.Arrays;
+
+/**
+ * Unicode 分词：按码点处理，连续的字母（及其后的组合附加符号）组成一个词，按码点转小写
+ * 中日文表意文字之间没有空格，每个表意字符单独作为一个词
+ */
+public class UnicodeTokenizer implements Tokenizer {
+
+    @Override
+    public void tokenize(CharSequence text, TokenSink sink) {
+        char[] buffer = new char[32];
+        int length = 0;
+        int n = text.length();
+        int i = 0;
+        while (i < n) {
+            int cp = Character.codePointAt(text, i);
+            i += Character.charCount(cp);
+            if (Character.isIdeographic(cp)) {
+                if (length > 0) {
+                    sink.accept(buffer, length);
+                }
+                length = Character.toChars(cp, buffer, 0);
+                sink.accept(buffer, length);
+                length = 0;
+                continue;
+            }
+            boolean wordChar = Character.isLetter(cp) || (length > 0 && isMark(cp));
+            if (!wordChar) {
+                if (length > 0) {
+                    sink.accept(buffer, length);
+                    length = 0;
+                }
+                continue;
+            }
+            if (length + 2 > buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            length += Character.toChars(Character.toLowerCase(cp), buffer, length);
+        }
+        if (length > 0) {
+            sink.accept(buffer, length);
+        }
+    }
+
+    private static boolean isMark(int cp) {
+        int type = Character.getType(cp);
+        return type == Character.NON_SPACING_MARK
+                || type == Character.COMBINING_SPACING_MARK
+                || type == Character.ENCLOSING_MARK;
+    }
+}
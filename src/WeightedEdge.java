@@ -0,0 +1,45 @@
+import java.util.Objects;
+
+//带权重的有向边，用于返回查询结果
+public final class WeightedEdge {
+    private final String source;
+    private final String target;
+    private final int weight;
+
+    public WeightedEdge(String source, String target, int weight) {
+        this.source = source;
+        this.target = target;
+        this.weight = weight;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public String getTarget() {
+        return target;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof WeightedEdge)) return false;
+        WeightedEdge other = (WeightedEdge) o;
+        return weight == other.weight && source.equals(other.source) && target.equals(other.target);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(source, target, weight);
+    }
+
+    // 与 printGraph 的输出格式一致
+    @Override
+    public String toString() {
+        return source + " -> " + target + " (" + weight + ")";
+    }
+}
@@ -3,17 +3,40 @@ import java.util.*;
 import java.util.Random;
 import java.util.stream.Collectors;
 import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
 
 public class WordGraph {
     private final Map<String, Map<String, Integer>> adjacencyList;
     private volatile boolean stopRequested = false;
+    // 只读快照，图被修改后失效
+    private volatile GraphSnapshot snapshot;
+    // 与当前快照对应的结构分析，分量和可达性结果随快照缓存
+    private GraphAnalytics analytics;
+    // 异步任务默认使用的线程池
+    private volatile Executor jobExecutor = ForkJoinPool.commonPool();
 
     public WordGraph() {
         adjacencyList = new HashMap<>();
     }
 
-    public void buildGraph(List<String> words) {
+    // 由快照生成单词图，邻接表按快照的编号顺序插入，并直接复用该快照
+    WordGraph(GraphSnapshot graph) {
+        adjacencyList = new LinkedHashMap<>();
+        for (int v = 0; v < graph.nodeCount(); v++) {
+            Map<String, Integer> edges = new HashMap<>();
+            for (int e = graph.outStart(v); e < graph.outEnd(v); e++) {
+                edges.put(graph.word(graph.outTarget(e)), graph.outWeight(e));
+            }
+            adjacencyList.put(graph.word(v), edges);
+        }
+        snapshot = graph;
+    }
+
+    public synchronized void buildGraph(List<String> words) {
+        snapshot = null;
         // 确保所有单词都作为节点存在
         for (String word : words) {
             adjacencyList.putIfAbsent(word, new HashMap<>());
@@ -27,6 +50,30 @@ public class WordGraph {
         }
     }
 
+    // 直接添加带权重的边（已存在时累加），用于由其他结构生成单词图
+    synchronized void addEdge(String source, String target, int weight) {
+        snapshot = null;
+        adjacencyList.putIfAbsent(target, new HashMap<>());
+        adjacencyList.computeIfAbsent(source, k -> new HashMap<>()).merge(target, weight, Integer::sum);
+    }
+
+    // 获取当前图的只读快照（CSR形式），图未改变时重复调用返回同一个对象
+    public synchronized GraphSnapshot snapshot() {
+        if (snapshot == null) {
+            snapshot = GraphSnapshot.of(adjacencyList);
+        }
+        return snapshot;
+    }
+
+    // 当前快照的结构分析；图未改变时返回同一个对象，已算过的强连通分量、缩点和可达性不会重复计算
+    public synchronized GraphAnalytics analytics() {
+        GraphSnapshot current = snapshot();
+        if (analytics == null || analytics.graph() != current) {
+            analytics = new GraphAnalytics(current);
+        }
+        return analytics;
+    }
+
     // 获取节点总数
     public int nodeCount() {
         return adjacencyList.size();
@@ -35,6 +82,52 @@ public class WordGraph {
     public int getEdgeWeight(String source, String target) {
         return adjacencyList.getOrDefault(source, new HashMap<>()).getOrDefault(target, 0);
     }
+    // word 之后最常出现的 k 个词及次数，按次数从大到小（快照中的出边已排序，只需 O(K)）
+    public List<WeightedEdge> topNextWords(String word, int k) {
+        GraphSnapshot graph = snapshot();
+        List<WeightedEdge> result = new ArrayList<>();
+        int v = graph.indexOf(word);
+        if (v < 0) {
+            return result;
+        }
+        int end = Math.min(graph.outEnd(v), graph.outStart(v) + Math.max(k, 0));
+        for (int e = graph.outStart(v); e < end; e++) {
+            result.add(new WeightedEdge(word, graph.word(graph.outTarget(e)), graph.outWeight(e)));
+        }
+        return result;
+    }
+
+    // 最常出现在 word 之前的 k 个词及次数，按次数从大到小
+    public List<WeightedEdge> topPredecessors(String word, int k) {
+        GraphSnapshot graph = snapshot();
+        List<WeightedEdge> result = new ArrayList<>();
+        int v = graph.indexOf(word);
+        if (v < 0) {
+            return result;
+        }
+        int end = Math.min(graph.inEnd(v), graph.inStart(v) + Math.max(k, 0));
+        for (int e = graph.inStart(v); e < end; e++) {
+            result.add(new WeightedEdge(graph.word(graph.inSource(e)), word, graph.inWeight(e)));
+        }
+        return result;
+    }
+
+    // 全图权重最大的 k 条边，O(E log K)
+    public List<WeightedEdge> topEdges(int k) {
+        GraphSnapshot graph = snapshot();
+        List<WeightedEdge> result = new ArrayList<>();
+        for (int e : TopK.largestIndices(graph.edgeCount(), graph::outWeight, k)) {
+            result.add(new WeightedEdge(graph.word(graph.outSource(e)), graph.word(graph.outTarget(e)),
+                    graph.outWeight(e)));
+        }
+        return result;
+    }
+
+    // PageRank 最高的 k 个节点，按值从大到小，O(n log K)
+    public List<Map.Entry<String, Double>> topPageRank(double d, int k) {
+        return TopK.largest(computePageRank(d).entrySet(), k, Map.Entry.comparingByValue());
+    }
+
     //控制台打印有向图
     public void printGraph() {
         for (Map.Entry<String, Map<String, Integer>> entry : adjacencyList.entrySet()) {
@@ -91,6 +184,11 @@ public class WordGraph {
                 bridgeWords.add(potentialBridge);
             }
         }
+        return bridgeWordsMessage(word1, word2, bridgeWords);
+    }
+
+    // 桥接词查询的输出文本，供其他存储后端复用
+    static String bridgeWordsMessage(String word1, String word2, List<String> bridgeWords) {
         if (bridgeWords.isEmpty()) {
             return "No bridge words from " + word1 + " to " + word2 + "!";
         } else if (bridgeWords.size() == 1) {
@@ -155,42 +253,96 @@ public class WordGraph {
             System.out.println("Start word '" + start + "' not found in graph.");
             return;
         }
-        if (end != null) {
-            if (!adjacencyList.containsKey(end)) {
-                System.out.println("End word '" + end + "' not found in graph.");
-                return;
-            }
-            Map<String, List<String>> predecessors = new HashMap<>();
-            Map<String, Integer> distances = new HashMap<>();
-            bfs(start, end, predecessors, distances);
-            if (!distances.containsKey(end)) {
-                System.out.println("No path exists from '" + start + "' to '" + end + "'.");
-                return;
+        if (end != null && !adjacencyList.containsKey(end)) {
+            System.out.println("End word '" + end + "' not found in graph.");
+            return;
+        }
+        Map<String, List<List<String>>> allPaths = findShortestPaths(start, end);
+        for (Map.Entry<String, List<List<String>>> entry : allPaths.entrySet()) {
+            String target = entry.getKey();
+            if (entry.getValue().isEmpty()) {
+                if (end != null) {
+                    System.out.println("No path exists from '" + start + "' to '" + target + "'.");
+                } else {
+                    System.out.println("No path from '" + start + "' to '" + target + "'.");
+                }
+                continue;
             }
-            List<List<String>> paths = getAllPaths(start, end, predecessors);
-            System.out.println("Shortest path(s) from '" + start + "' to '" + end + "':");
-            for (List<String> path : paths) {
+            System.out.println("Shortest path(s) from '" + start + "' to '" + target + "':");
+            for (List<String> path : entry.getValue()) {
                 System.out.println(String.join(" -> ", path));
             }
+        }
+    }
+
+    /**
+     * 计算最短路径并以数据形式返回，不向控制台输出
+     * end 为 null 时返回到所有其他节点的路径，不可达的节点对应空列表
+     */
+    public Map<String, List<List<String>>> findShortestPaths(String start, String end) {
+        if (start == null || start.isEmpty()) {
+            throw new IllegalArgumentException("Invalid start word.");
+        }
+        if (!adjacencyList.containsKey(start)) {
+            throw new IllegalArgumentException("Start word '" + start + "' not found in graph.");
+        }
+        if (end != null && !adjacencyList.containsKey(end)) {
+            throw new IllegalArgumentException("End word '" + end + "' not found in graph.");
+        }
+        Map<String, List<List<String>>> result = new LinkedHashMap<>();
+        if (end == null) {
+            // 所有目标：在快照上跑一次 BFS 内核，前驱由反向边中 dist[u] == dist[v] - 1 的节点得到
+            GraphSnapshot graph = snapshot();
+            return allShortestPaths(graph, graph.indexOf(start), null);
+        }
+        Map<String, List<String>> predecessors = new HashMap<>();
+        Map<String, Integer> distances = new HashMap<>();
+        bfs(start, end, predecessors, distances);
+        if (!distances.containsKey(end)) {
+            result.put(end, Collections.emptyList());
         } else {
-            Map<String, List<String>> predecessors = new HashMap<>();
-            Map<String, Integer> distances = new HashMap<>();
-            bfs(start, null, predecessors, distances);
-            for (String target : adjacencyList.keySet()) {
-                if (target.equals(start)) {
-                    continue;
-                }
-                if (!distances.containsKey(target)) {
-                    System.out.println("No path from '" + start + "' to '" + target + "'.");
-                    continue;
-                }
-                List<List<String>> paths = getAllPaths(start, target, predecessors);
-                System.out.println("Shortest path(s) from '" + start + "' to '" + target + "':");
-                for (List<String> path : paths) {
-                    System.out.println(String.join(" -> ", path));
-                }
+            result.put(end, getAllPaths(start, end, predecessors, distances.get(end)));
+        }
+        return result;
+    }
+
+    // 快照中的节点编号与 adjacencyList 的遍历顺序一致，因此结果顺序与逐个目标查询相同
+    private static Map<String, List<List<String>>> allShortestPaths(GraphSnapshot graph, int source, GraphJob<?> job) {
+        int[] dist = new BfsKernel(graph).distances(source);
+        Map<String, List<List<String>>> result = new LinkedHashMap<>();
+        int n = graph.nodeCount();
+        for (int v = 0; v < n; v++) {
+            if (job != null) {
+                job.checkCancelled();
+                job.report((double) v / n);
+            }
+            if (v == source) {
+                continue;
+            }
+            if (dist[v] == BfsKernel.UNREACHED) {
+                result.put(graph.word(v), Collections.emptyList());
+            } else {
+                result.put(graph.word(v), getAllPaths(graph, dist, source, v));
             }
         }
+        return result;
+    }
+
+    // 到任一起点的最短距离（多源 BFS），只包含可达的单词；图中不存在的起点被忽略
+    public Map<String, Integer> distancesFrom(Collection<String> sources) {
+        GraphSnapshot graph = snapshot();
+        int[] ids = sources.stream().mapToInt(graph::indexOf).filter(id -> id >= 0).toArray();
+        if (ids.length == 0) {
+            throw new IllegalArgumentException("None of the source words found in graph.");
+        }
+        int[] dist = new BfsKernel(graph).distances(ids);
+        Map<String, Integer> result = new LinkedHashMap<>();
+        for (int v = 0; v < dist.length; v++) {
+            if (dist[v] != BfsKernel.UNREACHED) {
+                result.put(graph.word(v), dist[v]);
+            }
+        }
+        return result;
     }
 
     private void bfs(String start, String end, Map<String, List<String>> predecessors, Map<String, Integer> distances) {
@@ -228,106 +380,89 @@ public class WordGraph {
         }
     }
 
-    private List<List<String>> getAllPaths(String start, String end, Map<String, List<String>> predecessors) {
+    // 从 end 沿前驱回溯到 start，用显式栈代替递归，长链上不会栈溢出；路径顺序与递归展开相同
+    private List<List<String>> getAllPaths(String start, String end, Map<String, List<String>> predecessors,
+                                           int depth) {
         List<List<String>> paths = new ArrayList<>();
-        if (start.equals(end)) {
-            List<String> path = new ArrayList<>();
-            path.add(start);
-            paths.add(path);
-            return paths;
-        }
-        List<String> preds = predecessors.get(end);
-        if (preds == null || preds.isEmpty()) {
-            return paths;
-        }
-        for (String pred : preds) {
-            List<List<String>> predPaths = getAllPaths(start, pred, predecessors);
-            for (List<String> path : predPaths) {
-                List<String> newPath = new ArrayList<>(path);
-                newPath.add(end);
-                paths.add(newPath);
+        // path[i] 为回溯到第 i 层的单词（end 为第 0 层），cursor[i] 为其下一个待展开的前驱
+        String[] path = new String[depth + 1];
+        int[] cursor = new int[depth + 1];
+        path[0] = end;
+        int level = 0;
+        while (level >= 0) {
+            String current = path[level];
+            if (current.equals(start)) {
+                paths.add(reversed(path, level));
+                level--;
+                continue;
+            }
+            List<String> preds = predecessors.getOrDefault(current, Collections.emptyList());
+            if (level < depth && cursor[level] < preds.size()) {
+                path[level + 1] = preds.get(cursor[level]++);
+                cursor[level + 1] = 0;
+                level++;
+            } else {
+                level--;
             }
         }
         return paths;
     }
 
+    // 在快照上回溯，前驱为反向边中 dist[u] == dist[v] - 1 的节点
+    private static List<List<String>> getAllPaths(GraphSnapshot graph, int[] dist, int start, int end) {
+        List<List<String>> paths = new ArrayList<>();
+        int depth = dist[end];
+        int[] path = new int[depth + 1];
+        int[] cursor = new int[depth + 1];
+        path[0] = end;
+        cursor[0] = graph.inStart(end);
+        int level = 0;
+        while (level >= 0) {
+            int v = path[level];
+            if (v == start) {
+                List<String> words = new ArrayList<>(level + 1);
+                for (int i = level; i >= 0; i--) {
+                    words.add(graph.word(path[i]));
+                }
+                paths.add(words);
+                level--;
+                continue;
+            }
+            int e = cursor[level];
+            while (e < graph.inEnd(v) && dist[graph.inSource(e)] != dist[v] - 1) {
+                e++;
+            }
+            if (e < graph.inEnd(v)) {
+                int pred = graph.inSource(e);
+                cursor[level] = e + 1;
+                path[level + 1] = pred;
+                cursor[level + 1] = graph.inStart(pred);
+                level++;
+            } else {
+                level--;
+            }
+        }
+        return paths;
+    }
+
+    private static List<String> reversed(String[] path, int level) {
+        List<String> words = new ArrayList<>(level + 1);
+        for (int i = level; i >= 0; i--) {
+            words.add(path[i]);
+        }
+        return words;
+    }
+
     // PageRank计算方法
     public void computeAndPrintPageRank(double d) {
-        Set<String> nodes = adjacencyList.keySet();
-        if (nodes.isEmpty()) {
+        if (adjacencyList.isEmpty()) {
             System.out.println("Graph is empty.");
             return;
         }
-
-        // 预处理出链权重和反向邻接表
-        Map<String, Double> outWeights = new HashMap<>();
-        Map<String, List<String>> reverseAdjacency = new HashMap<>();
-
-        for (String source : nodes) {
-            Map<String, Integer> edges = adjacencyList.get(source);
-            // 计算总出链权重
-            double total = edges.values().stream().mapToInt(Integer::intValue).sum();
-            outWeights.put(source, total);
-            // 构建反向邻接表
-            for (String target : edges.keySet()) {
-                reverseAdjacency.putIfAbsent(target, new ArrayList<>());
-                reverseAdjacency.get(target).add(source);
-            }
-        }
-
-        // 初始化参数
-        final double DAMPING =d;
-        final int MAX_ITERATIONS = 100;
-        final double EPSILON = 1e-8;
-        int nodeCount = nodes.size();
-
-        // 初始化PageRank值
-        Map<String, Double> pageRank = new HashMap<>();
-        double initialValue = 1.0 / nodeCount;
-        Map<String, Double> finalPageRank = pageRank;
-        nodes.forEach(node -> finalPageRank.put(node, initialValue));
-
-        // PageRank迭代计算
-        for (int i = 0; i < MAX_ITERATIONS; i++) {
-            Map<String, Double> newRank = new HashMap<>();
-
-            // 计算悬挂节点总PR值
-            double danglingSum = nodes.stream()
-                    .filter(node -> outWeights.get(node) == 0)
-                    .mapToDouble(pageRank::get)
-                    .sum();
-
-            // 计算每个节点的新PR值
-            for (String node : nodes) {
-                // 来自正常链接的贡献
-                Map<String, Double> finalPageRank1 = pageRank;
-                double rankFromLinks = reverseAdjacency.getOrDefault(node, Collections.emptyList())
-                        .stream()
-                        .mapToDouble(source -> {
-                            double sourceOut = outWeights.get(source);
-                            return sourceOut > 0 ?
-                                    finalPageRank1.get(source) * adjacencyList.get(source).get(node) / sourceOut :
-                                    0;
-                        })
-                        .sum();
-
-                // 综合所有组成部分
-                double newValue = (1 - DAMPING) / nodeCount +
-                        DAMPING * (rankFromLinks + danglingSum / nodeCount);
-                newRank.put(node, newValue);
-            }
-
-            // 检查收敛
-            double delta = 0.0;
-            for (String node : nodes) {
-                delta += Math.abs(newRank.get(node) - pageRank.get(node));
-            }
-            pageRank = newRank;
-
-            if (delta < EPSILON) {
-                System.out.println("Converged after " + (i+1) + " iterations");
-                break;
-            }
+        int[] iterations = new int[1];
+        Map<String, Double> pageRank = computePageRank(d, iterations);
+        if (iterations[0] > 0) {
+            System.out.println("Converged after " + iterations[0] + " iterations");
         }
 
         // 格式化输出结果
@@ -337,6 +472,18 @@ public class WordGraph {
                 .forEach(entry -> System.out.printf("%-5s %.6f%n", entry.getKey(), entry.getValue()));
     }
 
+    // 计算PageRank并返回每个节点的值，不向控制台输出
+    public Map<String, Double> computePageRank(double d) {
+        return computePageRank(d, new int[1]);
+    }
+
+    // convergedAt[0] 记录收敛时的迭代次数，未收敛时为 0
+    private Map<String, Double> computePageRank(double d, int[] convergedAt) {
+        PageRank pageRank = PageRank.compute(snapshot(), d);
+        convergedAt[0] = pageRank.convergedAt();
+        return pageRank.toMap();
+    }
+
     //随机游走算法
 //    public void randomWalkToFile(String filename) throws IOException {
 //        if (adjacencyList.isEmpty()) {
@@ -386,37 +533,119 @@ public class WordGraph {
             throw new IllegalStateException("Graph is empty");
         }
 
-        List<String> nodes = new ArrayList<>(adjacencyList.keySet());
-        String current = nodes.get(new Random().nextInt(nodes.size()));
-        List<String> pathNodes = new ArrayList<>(Collections.singletonList(current));
         Set<String> visitedEdges = (initialVisitedEdges != null) ? new HashSet<>(initialVisitedEdges) : new HashSet<>();
 
         startStopMonitor();
 
+        List<String> pathNodes;
         try {
-            while (true) {
-                Map<String, Integer> edges = adjacencyList.get(current);
-                if (edges == null || edges.isEmpty()) break;
+            pathNodes = walk(new Random(), visitedEdges, () -> stopRequested);
+        } finally {
+            stopRequested = true;
+        }
 
-                String next = selectNextNodeWithoutWeights(edges);
-                String edgeKey = current + "->" + next;
+        writePathToFile(filename, pathNodes);
+    }
 
-                if (visitedEdges.contains(edgeKey)) {
-                    pathNodes.add(next);
-                    break;
-                }
+    /**
+     * 非交互式随机游走：不监听控制台，直接返回经过的节点序列
+     */
+    public List<String> randomWalk(Random random) {
+        if (adjacencyList.isEmpty()) {
+            throw new IllegalStateException("Graph is empty");
+        }
+        return walk(random, new HashSet<>(), () -> false);
+    }
 
-                visitedEdges.add(edgeKey);
-                pathNodes.add(next);
-                current = next;
+    public void setJobExecutor(Executor executor) {
+        this.jobExecutor = Objects.requireNonNull(executor);
+    }
+
+    /**
+     * 异步任务：提交时取当前快照，任务只读快照，之后对图的修改不影响正在运行的任务，
+     * 多个任务可以同时在同一个快照上运行；结果不输出到控制台
+     */
+    public GraphJob<Map<String, Double>> pageRankAsync(double d) {
+        return pageRankAsync(d, jobExecutor);
+    }
+
+    public GraphJob<Map<String, Double>> pageRankAsync(double d, Executor executor) {
+        GraphSnapshot graph = snapshot();
+        return GraphJob.submit(executor, job -> PageRank.compute(graph, d, job).toMap());
+    }
+
+    public GraphJob<Map<String, List<List<String>>>> shortestPathsAsync(String start) {
+        return shortestPathsAsync(start, jobExecutor);
+    }
+
+    // 从 start 到所有其他单词的最短路径，等价于 findShortestPaths(start, null)
+    public GraphJob<Map<String, List<List<String>>>> shortestPathsAsync(String start, Executor executor) {
+        GraphSnapshot graph = snapshot();
+        int source = start == null ? -1 : graph.indexOf(start);
+        if (source < 0) {
+            throw new IllegalArgumentException("Start word '" + start + "' not found in graph.");
+        }
+        return GraphJob.submit(executor, job -> allShortestPaths(graph, source, job));
+    }
+
+    public GraphJob<List<String>> randomWalkAsync(Random random) {
+        return randomWalkAsync(random, jobExecutor);
+    }
+
+    public GraphJob<List<String>> randomWalkAsync(Random random, Executor executor) {
+        GraphSnapshot graph = snapshot();
+        if (graph.nodeCount() == 0) {
+            throw new IllegalStateException("Graph is empty");
+        }
+        return GraphJob.submit(executor, job -> walk(graph, random, job));
+    }
 
-                if (stopRequested) break;
+    // 在快照上游走，规则与 walk 相同；用边编号的位图记录走过的边，进度为已走边数占总边数的比例
+    private static List<String> walk(GraphSnapshot graph, Random random, GraphJob<?> job) {
+        int current = random.nextInt(graph.nodeCount());
+        List<String> pathNodes = new ArrayList<>(Collections.singletonList(graph.word(current)));
+        BitSet visitedEdges = new BitSet(graph.edgeCount());
+        int steps = 0;
+        while (graph.outDegree(current) > 0) {
+            job.checkCancelled();
+            int edge = graph.outStart(current) + random.nextInt(graph.outDegree(current));
+            int next = graph.outTarget(edge);
+            pathNodes.add(graph.word(next));
+            if (visitedEdges.get(edge)) {
+                break;
             }
-        } finally {
-            stopRequested = true;
+            visitedEdges.set(edge);
+            current = next;
+            job.report((double) ++steps / graph.edgeCount());
         }
+        return pathNodes;
+    }
 
-        writePathToFile(filename, pathNodes);
+    // 游走主体：遇到无出边的节点、重复的边或 stop 返回 true 时结束
+    private List<String> walk(Random random, Set<String> visitedEdges, BooleanSupplier stop) {
+        List<String> nodes = new ArrayList<>(adjacencyList.keySet());
+        String current = nodes.get(random.nextInt(nodes.size()));
+        List<String> pathNodes = new ArrayList<>(Collections.singletonList(current));
+
+        while (true) {
+            Map<String, Integer> edges = adjacencyList.get(current);
+            if (edges == null || edges.isEmpty()) break;
+
+            String next = selectNextNodeWithoutWeights(edges, random);
+            String edgeKey = current + "->" + next;
+
+            if (visitedEdges.contains(edgeKey)) {
+                pathNodes.add(next);
+                break;
+            }
+
+            visitedEdges.add(edgeKey);
+            pathNodes.add(next);
+            current = next;
+
+            if (stop.getAsBoolean()) break;
+        }
+        return pathNodes;
     }
 
     // 其他方法（selectNextNodeWithoutWeights、startStopMonitor、writePathToFile）保持不变...
@@ -446,9 +675,9 @@ public class WordGraph {
     }
 
     // 根据所有可达节点均匀随机选择一个
-    private String selectNextNodeWithoutWeights(Map<String, Integer> edges) {
+    private String selectNextNodeWithoutWeights(Map<String, Integer> edges, Random random) {
         List<String> nodes = new ArrayList<>(edges.keySet());
-        return nodes.get(new Random().nextInt(nodes.size()));
+        return nodes.get(random.nextInt(nodes.size()));
     }
 
     //提前终止